@@ -0,0 +1,89 @@
+package com.spock117.triggermobs.benchmark;
+
+import com.spock117.triggermobs.TriggerMobs;
+import com.spock117.triggermobs.util.InaccuracyHelper;
+import com.spock117.triggermobs.util.SpreadProfile;
+import net.minecraft.util.RandomSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost of the per-shot inaccuracy offsets. Uses the same RandomSource type mobs use.
+ * baselineShotOffsets is the per-axis computation shots used before spread tables (three random draws
+ * per axis, kept here as a copy); spreadSample is the single-draw table lookup shots use now.
+ * pitchOffset and yawOffset are InaccuracyHelper's per-axis methods, which read the same table.
+ */
+@State(Scope.Thread)
+public class InaccuracyBenchmark {
+    private RandomSource random;
+    private final SpreadProfile.Sample sample = new SpreadProfile.Sample();
+    
+    /**
+     * InaccuracyHelper's offset computation before spread tables: tier roll, magnitude and sign
+     * drawn separately for each axis.
+     */
+    static final class BaselineInaccuracy {
+        private static final float TIER1_MIN_INACCURACY = 3.0f;
+        private static final float TIER1_MAX_INACCURACY = 5.0f;
+        private static final float TIER2_MIN_INACCURACY = 12.0f;
+        private static final float TIER2_MAX_INACCURACY = 15.0f;
+        
+        private static float getTier2Probability() {
+            float tier1Prob = TriggerMobs.tier1Probability;
+            if (tier1Prob < 0.0f || tier1Prob > 1.0f) {
+                tier1Prob = 0.125f;
+            }
+            return 1.0f - tier1Prob;
+        }
+        
+        static float getOffset(RandomSource random) {
+            boolean useTier2 = random.nextFloat() < getTier2Probability();
+            
+            float minInaccuracy, maxInaccuracy;
+            if (useTier2) {
+                minInaccuracy = TIER2_MIN_INACCURACY;
+                maxInaccuracy = TIER2_MAX_INACCURACY;
+            } else {
+                minInaccuracy = TIER1_MIN_INACCURACY;
+                maxInaccuracy = TIER1_MAX_INACCURACY;
+            }
+            
+            float range = maxInaccuracy - minInaccuracy;
+            float base = minInaccuracy + random.nextFloat() * range;
+            return (random.nextBoolean() ? 1 : -1) * base;
+        }
+    }
+    
+    @Setup
+    public void setup() {
+        random = RandomSource.create(0x5EEDL);
+    }
+    
+    @Benchmark
+    public float pitchOffset() {
+        return InaccuracyHelper.getPitchOffset(random);
+    }
+    
+    @Benchmark
+    public float yawOffset() {
+        return InaccuracyHelper.getYawOffset(random);
+    }
+    
+    // Before: what one shot paid, both offsets computed separately
+    @Benchmark
+    public void baselineShotOffsets(Blackhole blackhole) {
+        blackhole.consume(BaselineInaccuracy.getOffset(random));
+        blackhole.consume(BaselineInaccuracy.getOffset(random));
+    }
+    
+    // After: both offsets from one table sample
+    @Benchmark
+    public void spreadSample(Blackhole blackhole) {
+        SpreadProfile.DEFAULT.sample(random, sample);
+        blackhole.consume(sample.getPitchOffset());
+        blackhole.consume(sample.getYawOffset());
+    }
+}
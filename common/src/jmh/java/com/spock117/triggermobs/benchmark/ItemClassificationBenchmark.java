@@ -0,0 +1,76 @@
+package com.spock117.triggermobs.benchmark;
+
+import com.spock117.triggermobs.ai.WeaponAIStrategy;
+import com.spock117.triggermobs.ai.WeaponStrategyFactory;
+import com.spock117.triggermobs.ai.WeaponStrategyRegistry;
+import com.spock117.triggermobs.util.MobItemPickupHelper;
+import com.spock117.triggermobs.util.WeaponTypeDetector;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.ItemStack;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Cost of the per-item lookups done when mobs equip items and pick strategies:
+ * weapon/tool filtering, CGS weapon classification and strategy lookup.
+ * Create:Gunsmithing is not on the benchmark classpath, so these measure the non-CGS path,
+ * which is what the bulk of mob-held items (vanilla gear, loot) take.
+ */
+@State(Scope.Thread)
+public class ItemClassificationBenchmark {
+    @Param({"minecraft:iron_sword", "minecraft:diamond_pickaxe", "minecraft:bow", "minecraft:rotten_flesh", "minecraft:air"})
+    public String itemId;
+    
+    private ItemStack stack;
+    
+    @Setup(Level.Trial)
+    public void setup() {
+        MinecraftBootstrap.ensure();
+        stack = new ItemStack(BuiltInRegistries.ITEM.get(new ResourceLocation(itemId)));
+        WeaponTypeDetector.rebuildCache();
+        WeaponStrategyRegistry.rebuildCache();
+    }
+    
+    @Benchmark
+    public boolean isWeaponOrTool() {
+        return MobItemPickupHelper.isWeaponOrTool(stack);
+    }
+    
+    @Benchmark
+    public WeaponTypeDetector.CGSWeaponType getCGSWeaponType() {
+        return WeaponTypeDetector.getCGSWeaponType(stack);
+    }
+    
+    @Benchmark
+    public WeaponAIStrategy getStrategy() {
+        return WeaponStrategyFactory.getStrategy(stack);
+    }
+    
+    /**
+     * Classification before the cache exists (startup, or right after a reload invalidated it).
+     */
+    @State(Scope.Thread)
+    public static class Uncached {
+        @Param({"minecraft:iron_sword", "minecraft:rotten_flesh"})
+        public String itemId;
+        
+        private ItemStack stack;
+        
+        @Setup(Level.Trial)
+        public void setup() {
+            MinecraftBootstrap.ensure();
+            stack = new ItemStack(BuiltInRegistries.ITEM.get(new ResourceLocation(itemId)));
+            WeaponTypeDetector.invalidateCache();
+        }
+        
+        @Benchmark
+        public WeaponTypeDetector.CGSWeaponType getCGSWeaponType() {
+            return WeaponTypeDetector.getCGSWeaponType(stack);
+        }
+    }
+}
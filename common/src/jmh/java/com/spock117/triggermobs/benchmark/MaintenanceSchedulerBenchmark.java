@@ -0,0 +1,55 @@
+package com.spock117.triggermobs.benchmark;
+
+import com.spock117.triggermobs.util.MaintenanceScheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Scheduling overhead of one level tick of equipment maintenance, with stand-in mobs
+ * so only the round-robin, removal checks and budget bookkeeping are measured.
+ */
+@State(Scope.Thread)
+public class MaintenanceSchedulerBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int trackedMobs;
+    
+    @Param({"10"})
+    public int intervalTicks;
+    
+    private MaintenanceScheduler<MobStandIn> scheduler;
+    private Predicate<MobStandIn> keep;
+    private Consumer<MobStandIn> task;
+    
+    /**
+     * Stand-in for a tracked Mob: just the state the maintenance predicate and task look at.
+     */
+    static final class MobStandIn {
+        final boolean alive = true;
+        int checks;
+    }
+    
+    @Setup
+    public void setup() {
+        scheduler = new MaintenanceScheduler<>();
+        for (int i = 0; i < trackedMobs; i++) {
+            scheduler.add(new MobStandIn());
+        }
+        keep = mob -> mob.alive;
+        task = mob -> mob.checks++;
+    }
+    
+    // Budget generous enough to never cut a tick short, so the full quota is measured
+    private static final long BUDGET_NANOS = TimeUnit.SECONDS.toNanos(1);
+    
+    @Benchmark
+    public int tick() {
+        return scheduler.tick(intervalTicks, BUDGET_NANOS, keep, task);
+    }
+}
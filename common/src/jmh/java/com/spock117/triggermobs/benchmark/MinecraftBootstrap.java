@@ -0,0 +1,23 @@
+package com.spock117.triggermobs.benchmark;
+
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+
+/**
+ * Bootstraps vanilla registries once per benchmark JVM, so real Items and ItemStacks can be used.
+ * No level, server or mod loader is started; benchmarks that need entities use stand-ins instead.
+ */
+final class MinecraftBootstrap {
+    private static boolean bootstrapped = false;
+    
+    private MinecraftBootstrap() {
+    }
+    
+    static synchronized void ensure() {
+        if (!bootstrapped) {
+            SharedConstants.tryDetectVersion();
+            Bootstrap.bootStrap();
+            bootstrapped = true;
+        }
+    }
+}
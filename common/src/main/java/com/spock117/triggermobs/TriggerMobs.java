@@ -3,14 +3,47 @@ package com.spock117.triggermobs;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.util.List;
+
 public class TriggerMobs {
     public static final String MOD_ID = "triggermobs";
     public static final Logger LOGGER = LogManager.getLogger(MOD_ID);
     
-    // Config values (set from Forge side)
+    // Config values (set from Forge side; reloads are applied on the server thread while a server is running)
     public static int baseAttackIntervalTicks = 200; // Default: 10 seconds
     public static int attackIntervalVariance = 80; // Default: ±4 seconds
     public static float tier1Probability = 0.125f; // Default: 12.5% (1/8) chance for accurate shots
+    public static boolean holdFireEnabled = true; // Mobs hold fire when their weapon's accuracy model expects a bad miss
+    public static int maintenanceIntervalTicks = 10; // Default: each tracked mob's equipment is checked every 10 ticks
+    public static int maintenanceBudgetMicros = 500; // Default: at most 0.5 ms per tick on equipment maintenance (shared by all dimensions)
+    public static List<String> maintenanceDimensions = List.of("minecraft:overworld"); // Dimensions with equipment maintenance
+    public static boolean aiLodEnabled = true; // Run far-away mob AI at reduced rate
+    public static int aiLodNearDistance = 24; // Default: full AI within 24 blocks of a player
+    public static int aiLodFarDistance = 64; // Default: reduced AI within 64 blocks, minimal beyond
+    public static int aiLodReducedInterval = 4; // Default: reduced tier decides every 4 ticks
+    public static int aiLodMinimalInterval = 10; // Default: minimal tier decides every 10 ticks
+    public static boolean batchMobShots = false; // Fire mob shots together at the end of each level tick
+    public static int maxShotsPerTick = 4; // Default: mob shots are spread so about 4 fire per level per tick (0 = off)
+    public static boolean hitscanUnobservedShots = false; // Resolve shots no player can see as instant raycasts
+    public static float hitscanDamage = 5.0f; // Default: 2.5 hearts per hitscan hit
+    public static double hitscanRange = 64.0; // Default: hitscan shots reach 64 blocks
+    public static int losCacheTicks = 4; // Default: line-of-sight results are reused for up to 4 ticks (0 = off)
+    public static int pathBudgetPerTick = 8; // Default: at most 8 chase path searches per level per tick (0 = unlimited)
+    public static int pathReuseTicks = 10; // Default: mobs starting close together reuse a path for 10 ticks (0 = off)
+    public static boolean flowFieldsEnabled = false; // Shared flow fields around heavily targeted entities
+    public static int flowFieldMinAttackers = 6; // Default: a field is built once 6+ mobs chase the same entity
+    public static int flowFieldRadius = 32; // Default: fields reach 32 blocks around the target
+    public static int flowFieldNodesPerTick = 4096; // Default: field building expands at most 4096 blocks per level per tick
+    public static boolean throttleEnabled = true; // Degrade mob combat AI while the server is behind
+    public static double throttleStartMspt = 40.0; // Default: first throttle stage at 40 ms average tick time
+    public static double throttleStepMspt = 5.0; // Default: each further stage 5 ms later
+    public static boolean metricsEnabled = false; // Record combat metrics for Prometheus
+    public static int metricsPort = 0; // Default: no HTTP endpoint
+    public static String metricsFile = ""; // Default: no metrics file
+    public static List<String> gunUserIncludes = List.of(); // Extra entity types that get the gun goal
+    public static List<String> gunUserExcludes = List.of(); // Entity types that never get the gun goal
+    public static boolean squadsEnabled = true; // Coordinate nearby armed mobs with the same target
+    public static int squadRadius = 16; // Default: mobs within 16 blocks of each other form a squad
 
     public static void init() {
         LOGGER.info("TriggerMobs mod initialized");
@@ -0,0 +1,130 @@
+package com.spock117.triggermobs.ai;
+
+/**
+ * How a weapon's accuracy depends on the situation: target distance, how fast the target is moving,
+ * and how long the mob has had it in sight (seeTime). The three curves are combined into a lookup
+ * table when the model is built, so a shot costs a few index calculations and one array read.
+ * The result scales the weapon's SpreadProfile. Where the spread would be much worse than usual
+ * (at or above the hold-fire scale) the mob holds its fire and waits for a better shot instead of
+ * spawning a projectile that will almost certainly miss.
+ * Strategies provide theirs through WeaponAIStrategy.getAccuracyModel().
+ */
+public class AccuracyModel {
+    // Table resolution: 2 blocks, 0.05 blocks/tick and 5 ticks per step
+    private static final int DISTANCE_STEPS = 32;
+    private static final float DISTANCE_STEP = 2.0F;
+    private static final int SPEED_STEPS = 8;
+    private static final float SPEED_STEP = 0.05F;
+    private static final int EXPOSURE_STEPS = 9;
+    private static final int EXPOSURE_STEP = 5;
+    
+    // In blocks per tick: a walking player moves about 0.22 (the 0.20 row), a sprinting one about 0.28 (the 0.25 row).
+    // Walking or slower costs no accuracy; the movement penalty applies in full from sprinting speed on.
+    private static final float WALK_SPEED = 0.2F;
+    private static final float SPRINT_SPEED = 0.25F;
+    
+    /**
+     * Aim tightens to 0.85x over the first two seconds; sprinting targets are 1.3x harder to hit; distance doesn't matter.
+     * The hold-fire scale is 1.5x, which these curves never reach; models with a steeper movement or
+     * distance penalty (launchers, shotguns at range) hold against sprinting targets.
+     */
+    public static final AccuracyModel DEFAULT = builder().build();
+    
+    private final float[] scales = new float[DISTANCE_STEPS * SPEED_STEPS * EXPOSURE_STEPS];
+    
+    private AccuracyModel(Builder builder) {
+        for (int d = 0; d < DISTANCE_STEPS; d++) {
+            float distanceScale = lerp(builder.nearScale, builder.farScale, d * DISTANCE_STEP / builder.farDistance);
+            for (int v = 0; v < SPEED_STEPS; v++) {
+                float movementScale = lerp(1.0F, builder.movingScale, (v * SPEED_STEP - WALK_SPEED) / (SPRINT_SPEED - WALK_SPEED));
+                for (int s = 0; s < EXPOSURE_STEPS; s++) {
+                    float exposureScale = lerp(builder.unaimedScale, builder.aimedScale, (float) (s * EXPOSURE_STEP) / builder.aimTicks);
+                    float scale = distanceScale * movementScale * exposureScale;
+                    // Stored negative where the mob should hold fire
+                    scales[index(d, v, s)] = scale >= builder.holdFireScale ? -scale : scale;
+                }
+            }
+        }
+    }
+    
+    private static float lerp(float from, float to, float progress) {
+        return from + (to - from) * Math.min(1.0F, Math.max(0.0F, progress));
+    }
+    
+    private static int index(int distanceStep, int speedStep, int exposureStep) {
+        return (distanceStep * SPEED_STEPS + speedStep) * EXPOSURE_STEPS + exposureStep;
+    }
+    
+    /**
+     * Looks up the situation a shot would be fired in.
+     * @param distance Distance to the target in blocks
+     * @param targetSpeed Target's horizontal speed in blocks per tick
+     * @param seeTime Ticks the mob has had the target in sight
+     * @return The spread multiplier; negative (same magnitude) if the mob should hold fire
+     */
+    public float lookup(double distance, double targetSpeed, int seeTime) {
+        int d = Math.min(DISTANCE_STEPS - 1, (int) (distance / DISTANCE_STEP));
+        int v = Math.min(SPEED_STEPS - 1, (int) (targetSpeed / SPEED_STEP));
+        int s = Math.min(EXPOSURE_STEPS - 1, Math.max(0, seeTime) / EXPOSURE_STEP);
+        return scales[index(d, v, s)];
+    }
+    
+    public static Builder builder() {
+        return new Builder();
+    }
+    
+    /**
+     * Curves are linear between their end points and clamped outside them.
+     */
+    public static class Builder {
+        private float nearScale = 1.0F;
+        private float farScale = 1.0F;
+        private float farDistance = 32.0F;
+        private float movingScale = 1.3F;
+        private float unaimedScale = 1.0F;
+        private float aimedScale = 0.85F;
+        private int aimTicks = 40;
+        private float holdFireScale = 1.5F;
+        
+        /**
+         * Spread multiplier at point blank range and at farDistance blocks.
+         */
+        public Builder distance(float nearScale, float farScale, float farDistance) {
+            this.nearScale = nearScale;
+            this.farScale = farScale;
+            this.farDistance = Math.max(DISTANCE_STEP, farDistance);
+            return this;
+        }
+        
+        /**
+         * Spread multiplier against a sprinting target (a standing or walking one is 1.0).
+         */
+        public Builder movement(float movingScale) {
+            this.movingScale = movingScale;
+            return this;
+        }
+        
+        /**
+         * Spread multiplier when the target was just spotted and after aiming for aimTicks ticks.
+         * Keep unaimedScale at 1.0 or below so an unmoving target is never harder to hit than the weapon's usual spread.
+         */
+        public Builder exposure(float unaimedScale, float aimedScale, int aimTicks) {
+            this.unaimedScale = unaimedScale;
+            this.aimedScale = aimedScale;
+            this.aimTicks = Math.max(1, aimTicks);
+            return this;
+        }
+        
+        /**
+         * Spread multiplier at or above which the mob holds fire (Float.MAX_VALUE never holds).
+         */
+        public Builder holdFire(float holdFireScale) {
+            this.holdFireScale = holdFireScale;
+            return this;
+        }
+        
+        public AccuracyModel build() {
+            return new AccuracyModel(this);
+        }
+    }
+}
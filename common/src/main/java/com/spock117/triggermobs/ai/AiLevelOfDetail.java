@@ -0,0 +1,79 @@
+package com.spock117.triggermobs.ai;
+
+import com.spock117.triggermobs.TriggerMobs;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.phys.Vec3;
+
+/**
+ * Level of detail for armed mob AI, based on how close the nearest player is and whether
+ * the mob is in front of a player. Lower tiers run the weapon strategy's decisions less often;
+ * in between, MobGunAttackGoal repeats the last steering input.
+ */
+public class AiLevelOfDetail {
+    // Mobs within ~60 degrees of a player's look direction count as in view
+    private static final double VIEW_CONE_COS = 0.5;
+    
+    public enum Tier {
+        FULL,     // Near a player, or in view at medium range: every tick
+        REDUCED,  // Medium range out of view, or in view far away
+        MINIMAL;  // No player anywhere near
+        
+        /**
+         * @return Ticks between strategy decisions for this tier
+         */
+        public int getDecisionInterval() {
+            return switch (this) {
+                case FULL -> 1;
+                case REDUCED -> Math.max(1, TriggerMobs.aiLodReducedInterval);
+                case MINIMAL -> Math.max(1, TriggerMobs.aiLodMinimalInterval);
+            };
+        }
+    }
+    
+    /**
+     * Picks the AI tier for a mob from the players in its level.
+     * @param mob The mob
+     * @return The tier to run at until the next decision
+     */
+    public static Tier getTier(Mob mob) {
+        if (!TriggerMobs.aiLodEnabled) {
+            return Tier.FULL;
+        }
+        
+        double nearSqr = (double) TriggerMobs.aiLodNearDistance * TriggerMobs.aiLodNearDistance;
+        double farSqr = (double) TriggerMobs.aiLodFarDistance * TriggerMobs.aiLodFarDistance;
+        Tier best = Tier.MINIMAL;
+        
+        for (Player player : mob.level().players()) {
+            double distanceSqr = player.distanceToSqr(mob);
+            if (distanceSqr <= nearSqr) {
+                return Tier.FULL;
+            }
+            
+            boolean inView = isInView(player, mob, distanceSqr);
+            if (distanceSqr <= farSqr) {
+                if (inView) {
+                    return Tier.FULL;
+                }
+                best = Tier.REDUCED;
+            } else if (inView && distanceSqr <= farSqr * 4.0) {
+                best = Tier.REDUCED;
+            }
+        }
+        return best;
+    }
+    
+    private static boolean isInView(Player player, Mob mob, double distanceSqr) {
+        if (distanceSqr < 1.0E-4) {
+            return true;
+        }
+        Vec3 look = player.getViewVector(1.0F);
+        double dx = mob.getX() - player.getX();
+        double dy = mob.getEyeY() - player.getEyeY();
+        double dz = mob.getZ() - player.getZ();
+        // dot(look, offset) / |offset| > cos, without the square root
+        double dot = look.x * dx + look.y * dy + look.z * dz;
+        return dot > 0 && dot * dot > VIEW_CONE_COS * VIEW_CONE_COS * (dx * dx + dy * dy + dz * dz);
+    }
+}
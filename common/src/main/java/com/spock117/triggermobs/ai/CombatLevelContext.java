@@ -0,0 +1,120 @@
+package com.spock117.triggermobs.ai;
+
+import com.spock117.triggermobs.util.CombatMetrics;
+import net.minecraft.world.level.Level;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Per-level combat state shared by all armed mobs in a level (server side).
+ * Created on first use and removed when the level unloads. The state references the level's mobs,
+ * which reference the level, so the weak keys alone would never let an unloaded level go.
+ */
+public class CombatLevelContext {
+    private static final Map<Level, CombatLevelContext> CONTEXTS = new WeakHashMap<>();
+    
+    private final LineOfSightCache lineOfSightCache = new LineOfSightCache();
+    private final FireQueue fireQueue = new FireQueue();
+    private final FireScheduler fireScheduler = new FireScheduler();
+    private final PathBroker pathBroker = new PathBroker();
+    private final SquadCoordinator squads = new SquadCoordinator();
+    // Armed mobs whose gun AI ran this tick (only counted while metrics are enabled)
+    private int armedMobs;
+    
+    /**
+     * Gets (or creates) the combat context for a level.
+     * @param level A server level
+     * @return The level's combat context
+     */
+    public static CombatLevelContext get(Level level) {
+        return CONTEXTS.computeIfAbsent(level, key -> new CombatLevelContext());
+    }
+    
+    /**
+     * Gets the combat context for a level without creating one.
+     * @param level A server level
+     * @return The level's combat context, or null if no armed mob has used it yet
+     */
+    public static CombatLevelContext getIfPresent(Level level) {
+        return CONTEXTS.get(level);
+    }
+    
+    /**
+     * @return All live contexts, keyed by level (for commands and reporting)
+     */
+    public static Map<Level, CombatLevelContext> getAll() {
+        return CONTEXTS;
+    }
+    
+    public LineOfSightCache getLineOfSightCache() {
+        return lineOfSightCache;
+    }
+    
+    public FireQueue getFireQueue() {
+        return fireQueue;
+    }
+    
+    public FireScheduler getFireScheduler() {
+        return fireScheduler;
+    }
+    
+    public PathBroker getPathBroker() {
+        return pathBroker;
+    }
+    
+    public SquadCoordinator getSquads() {
+        return squads;
+    }
+    
+    /**
+     * Counts an armed mob whose gun AI ran this tick, for the metrics.
+     */
+    public void noteArmedMob() {
+        armedMobs++;
+    }
+    
+    /**
+     * Drops a level's context (and any shots, path requests and squads it still holds), when the level unloads.
+     * @param level The unloading level
+     */
+    public static void remove(Level level) {
+        CombatLevelContext context = CONTEXTS.remove(level);
+        if (context != null) {
+            context.clear();
+        }
+    }
+    
+    /**
+     * Drops all contexts (and any shots or path requests still queued), e.g. when the server stops.
+     */
+    public static void clearAll() {
+        CONTEXTS.values().forEach(CombatLevelContext::clear);
+        CONTEXTS.clear();
+    }
+    
+    private void clear() {
+        fireQueue.clear();
+        pathBroker.clear();
+        squads.clear();
+    }
+    
+    /**
+     * End-of-tick work: fires the shots queued this tick, serves queued path requests
+     * with the next tick's budget, updates squad orders, then housekeeping.
+     * @param level The level this context belongs to
+     * @param gameTime Current game time
+     */
+    public void tick(Level level, long gameTime) {
+        fireQueue.flush();
+        pathBroker.tick(level, gameTime);
+        squads.tick(gameTime);
+        if (gameTime % 20 == 0) {
+            lineOfSightCache.sweep(gameTime);
+            if (CombatMetrics.isEnabled()) {
+                CombatMetrics.publishLevel(level, this, armedMobs);
+            }
+        }
+        armedMobs = 0;
+    }
+}
@@ -0,0 +1,157 @@
+package com.spock117.triggermobs.ai;
+
+import com.spock117.triggermobs.TriggerMobs;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.level.Level;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Server-wide governor that degrades armed mob AI step by step while the server is behind,
+ * and restores it once the average tick time recovers.
+ * Fed once per second with the server's rolling average tick time; read by MobGunAttackGoal
+ * and StrategyState. Server thread only.
+ */
+public class CombatThrottle {
+    // Stay at a stage at least this many updates (seconds) before stepping again, so it doesn't oscillate
+    private static final int MIN_UPDATES_BETWEEN_CHANGES = 5;
+    // Must drop this far below a stage's entry point before leaving it
+    private static final double RECOVERY_MARGIN_MSPT = 3.0;
+    // Shooting areas are 32x32 block columns
+    private static final int AREA_SHIFT = 5;
+    
+    public enum Stage {
+        //          path delay x, min decision interval, fire delay x, shots per area per second (0 = unlimited)
+        NORMAL(     1, 1, 1.0f, 0),
+        LIGHT(      2, 2, 1.0f, 0),
+        MODERATE(   3, 4, 1.5f, 8),
+        HEAVY(      4, 6, 2.0f, 4);
+        
+        private final int pathDelayMultiplier;
+        private final int minDecisionInterval;
+        private final float fireDelayMultiplier;
+        private final int maxShotsPerArea;
+        
+        Stage(int pathDelayMultiplier, int minDecisionInterval, float fireDelayMultiplier, int maxShotsPerArea) {
+            this.pathDelayMultiplier = pathDelayMultiplier;
+            this.minDecisionInterval = minDecisionInterval;
+            this.fireDelayMultiplier = fireDelayMultiplier;
+            this.maxShotsPerArea = maxShotsPerArea;
+        }
+        
+        public int getPathDelayMultiplier() {
+            return pathDelayMultiplier;
+        }
+        
+        public int getMinDecisionInterval() {
+            return minDecisionInterval;
+        }
+        
+        public float getFireDelayMultiplier() {
+            return fireDelayMultiplier;
+        }
+        
+        public int getMaxShotsPerArea() {
+            return maxShotsPerArea;
+        }
+    }
+    
+    private static final Stage[] STAGES = Stage.values();
+    
+    // Volatile: also read by the metrics exporter thread
+    private static volatile Stage stage = Stage.NORMAL;
+    private static double lastMspt = 0.0;
+    private static int updatesSinceChange = 0;
+    
+    // Shots fired per area in the current one-second window, per dimension
+    private static final Map<ResourceKey<Level>, Long2IntOpenHashMap> SHOTS_BY_AREA = new IdentityHashMap<>();
+    
+    /**
+     * @return The current degradation stage
+     */
+    public static Stage getStage() {
+        return stage;
+    }
+    
+    /**
+     * @return The average tick time (ms) seen at the last update
+     */
+    public static double getLastMspt() {
+        return lastMspt;
+    }
+    
+    /**
+     * Average tick time at which a stage is entered.
+     */
+    public static double getEntryMspt(Stage target) {
+        return TriggerMobs.throttleStartMspt + (target.ordinal() - 1) * TriggerMobs.throttleStepMspt;
+    }
+    
+    /**
+     * Steps the stage up or down by at most one, based on the server's average tick time.
+     * Call once per second.
+     * @param averageTickMillis Rolling average tick time in milliseconds
+     */
+    public static void update(double averageTickMillis) {
+        lastMspt = averageTickMillis;
+        SHOTS_BY_AREA.values().forEach(Long2IntOpenHashMap::clear);
+        
+        if (!TriggerMobs.throttleEnabled) {
+            stage = Stage.NORMAL;
+            return;
+        }
+        
+        updatesSinceChange++;
+        if (updatesSinceChange < MIN_UPDATES_BETWEEN_CHANGES) {
+            return;
+        }
+        
+        int current = stage.ordinal();
+        if (current < STAGES.length - 1 && averageTickMillis >= getEntryMspt(STAGES[current + 1])) {
+            setStage(STAGES[current + 1]);
+        } else if (current > 0 && averageTickMillis < getEntryMspt(stage) - RECOVERY_MARGIN_MSPT) {
+            setStage(STAGES[current - 1]);
+        }
+    }
+    
+    private static void setStage(Stage newStage) {
+        TriggerMobs.LOGGER.info("Combat throttle {} -> {} (average tick time {} ms)",
+            stage, newStage, String.format("%.1f", lastMspt));
+        stage = newStage;
+        updatesSinceChange = 0;
+    }
+    
+    /**
+     * Asks to fire a shot. At the heavier stages, only a limited number of shots per area
+     * are allowed each second; the rest of the shooters hold fire.
+     * @param mob The mob about to shoot
+     * @return true if the mob may fire now
+     */
+    public static boolean tryAcquireShot(Mob mob) {
+        int maxShots = stage.getMaxShotsPerArea();
+        if (maxShots <= 0) {
+            return true;
+        }
+        
+        Long2IntOpenHashMap shots = SHOTS_BY_AREA.computeIfAbsent(mob.level().dimension(), key -> new Long2IntOpenHashMap());
+        long area = ((long) (mob.getBlockX() >> AREA_SHIFT) << 32) | ((mob.getBlockZ() >> AREA_SHIFT) & 0xFFFFFFFFL);
+        if (shots.get(area) >= maxShots) {
+            return false;
+        }
+        shots.addTo(area, 1);
+        return true;
+    }
+    
+    /**
+     * Back to normal, e.g. when the server stops.
+     */
+    public static void reset() {
+        stage = Stage.NORMAL;
+        lastMspt = 0.0;
+        updatesSinceChange = 0;
+        SHOTS_BY_AREA.clear();
+    }
+}
@@ -0,0 +1,109 @@
+package com.spock117.triggermobs.ai;
+
+import com.nukateam.ntgl.common.foundation.item.interfaces.IWeapon;
+import com.spock117.triggermobs.util.CombatProfiler;
+import net.minecraft.world.InteractionHand;
+import net.minecraft.world.entity.PathfinderMob;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shots decided by mobs during a level tick, fired together at the end of that tick.
+ * Entries are pooled and reused, so queuing a shot does not allocate once the pool has grown.
+ * Server thread only.
+ */
+public class FireQueue {
+    private static final class PendingShot {
+        PathfinderMob mob;
+        InteractionHand hand;
+        float yaw;
+        float pitch;
+        float pitchOffset;
+        float yawOffset;
+        // The goal's context for the shot: strategy for the profiler, hitscan round count (may be null)
+        ShotContext context;
+    }
+    
+    private final List<PendingShot> pool = new ArrayList<>();
+    private int size = 0;
+    
+    /**
+     * Queues a shot, aimed now and fired at the end of the tick.
+     * @param mob The shooter
+     * @param hand The hand holding the weapon
+     * @param yaw Final yaw, inaccuracy included
+     * @param pitch Final pitch, inaccuracy included
+     * @param pitchOffset Pitch inaccuracy
+     * @param yawOffset Yaw inaccuracy
+     * @param context The gun goal's context for this shot, or null
+     */
+    public void enqueue(PathfinderMob mob, InteractionHand hand, float yaw, float pitch, float pitchOffset, float yawOffset,
+                        ShotContext context) {
+        PendingShot shot;
+        if (size < pool.size()) {
+            shot = pool.get(size);
+        } else {
+            shot = new PendingShot();
+            pool.add(shot);
+        }
+        size++;
+        
+        shot.mob = mob;
+        shot.hand = hand;
+        shot.yaw = yaw;
+        shot.pitch = pitch;
+        shot.pitchOffset = pitchOffset;
+        shot.yawOffset = yawOffset;
+        shot.context = context;
+    }
+    
+    /**
+     * Fires every queued shot whose shooter is still alive and still holding a weapon in that hand.
+     * Each shot is profiled as a FIRE phase of the strategy that decided it.
+     * @return The number of shots fired
+     */
+    public int flush() {
+        int fired = 0;
+        try {
+            for (int i = 0; i < size; i++) {
+                PendingShot shot = pool.get(i);
+                PathfinderMob mob = shot.mob;
+                ShotContext context = shot.context;
+                // Don't keep the mob or its goal reachable from the pool
+                shot.mob = null;
+                shot.context = null;
+                if (mob.isAlive() && mob.getItemInHand(shot.hand).getItem() instanceof IWeapon) {
+                    long phaseStart = CombatProfiler.start();
+                    MobShooter.fireNow(mob, shot.hand, shot.yaw, shot.pitch, shot.pitchOffset, shot.yawOffset, context);
+                    CombatProfiler.stop(CombatProfiler.Phase.FIRE, context != null ? context.getStrategy() : null, phaseStart);
+                    fired++;
+                }
+            }
+        } finally {
+            // A shot that throws (e.g. a hurt handler during a hitscan hit) drops the rest of this tick's
+            // queue instead of firing everything again next tick
+            clear();
+        }
+        return fired;
+    }
+    
+    /**
+     * @return Shots waiting for the end of the tick
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Drops queued shots without firing them.
+     */
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            PendingShot shot = pool.get(i);
+            shot.mob = null;
+            shot.context = null;
+        }
+        size = 0;
+    }
+}
@@ -0,0 +1,190 @@
+package com.spock117.triggermobs.ai;
+
+import com.spock117.triggermobs.TriggerMobs;
+
+import java.util.Arrays;
+
+/**
+ * Per-level timing wheel that spreads mob shots evenly over ticks (see CombatLevelContext).
+ * After each shot a mob books its next one: the delay its strategy asked for is the target,
+ * and the wheel picks the nearest tick that still has room under maxShotsPerTick, looking
+ * earlier and later alternately so the average fire rate stays the same. A shot that is ready
+ * without a booking (a mob's first shot, the first after a reload, or one delayed by line of sight)
+ * is booked on the spot: now if this tick has room, otherwise the nearest later tick with room, at most
+ * MAX_SHIFT ticks ahead. Booked shots always go, so no mob waits longer than that for a free tick.
+ * A squad member only books its squad firing slots (every stride-th tick, see SquadCoordinator), so
+ * squad mates still fire in turns. A booked shot that is not fired is released again.
+ * This keeps mobs from a wave from drifting into synchronized volleys.
+ */
+public class FireScheduler {
+    // Ticks covered by the wheel; delays longer than this are not booked
+    private static final int WHEEL_SIZE = 512;
+    private static final int MASK = WHEEL_SIZE - 1;
+    // How far a booking may move from its target, as a fraction of the delay (and at most MAX_SHIFT ticks)
+    private static final int SHIFT_DIVISOR = 5;
+    private static final int MAX_SHIFT = 10;
+    // Longest stride between squad firing slots (SquadCoordinator), which aligning a booking can add
+    private static final int MAX_FIRE_STRIDE = SquadCoordinator.MAX_FIRE_STRIDE;
+    
+    private final int[] counts = new int[WHEEL_SIZE];
+    // Tick each slot's count belongs to; a slot holding an older tick counts as empty
+    private final long[] slotTicks = new long[WHEEL_SIZE];
+    
+    private long booked;
+    private long shifted;
+    private long deferred;
+    
+    public FireScheduler() {
+        Arrays.fill(slotTicks, -1);
+    }
+    
+    /**
+     * Whether shot staggering is switched on in config.
+     */
+    public static boolean isEnabled() {
+        return TriggerMobs.maxShotsPerTick > 0;
+    }
+    
+    private int count(long tick) {
+        int slot = (int) (tick & MASK);
+        return slotTicks[slot] == tick ? counts[slot] : 0;
+    }
+    
+    // First tick at or after the given one where (tick + offset) is a multiple of stride
+    private static long align(long tick, int stride, int offset) {
+        return tick + Math.floorMod(-(tick + offset), stride);
+    }
+    
+    private void add(long tick) {
+        int slot = (int) (tick & MASK);
+        if (slotTicks[slot] != tick) {
+            slotTicks[slot] = tick;
+            counts[slot] = 0;
+        }
+        counts[slot]++;
+    }
+    
+    /**
+     * Whether a delay is short enough to be booked in the wheel.
+     * @param delay Ticks until the next shot
+     */
+    public static boolean canBook(int delay) {
+        return delay < WHEEL_SIZE - MAX_SHIFT - MAX_FIRE_STRIDE;
+    }
+    
+    /**
+     * Books a mob's next shot on one of its firing slot ticks (those where (tick + offset) % stride == 0).
+     * @param gameTime Current game time (the tick of the shot just fired)
+     * @param delay Ticks until the next shot, as requested by the strategy (at least 1)
+     * @param stride Ticks between the mob's firing slots (1 when every tick is a slot)
+     * @param offset The mob's slot offset
+     * @return The delay to use, which fires on the booked tick; the requested delay, unbooked, if canBook is false
+     */
+    public int book(long gameTime, int delay, int stride, int offset) {
+        if (!canBook(delay)) {
+            return delay;
+        }
+        
+        int cap = TriggerMobs.maxShotsPerTick;
+        int maxShift = Math.min(MAX_SHIFT, delay / SHIFT_DIVISOR);
+        long requested = gameTime + delay;
+        long target = align(requested, stride, offset);
+        
+        // Nearest slot tick with room: target, then one slot either side, two slots either side, ...
+        // (never this tick or earlier). Which side goes first alternates, so shifts average out.
+        long best = target;
+        int bestCount = count(target);
+        int firstSign = (gameTime & 1) == 0 ? 1 : -1;
+        for (int shift = stride; shift <= maxShift && bestCount >= cap; shift += stride) {
+            for (int side = 0; side < 2; side++) {
+                long tick = target + (side == 0 ? firstSign : -firstSign) * shift;
+                if (tick <= gameTime) {
+                    continue;
+                }
+                int count = count(tick);
+                if (count < bestCount) {
+                    best = tick;
+                    bestCount = count;
+                    if (count < cap) {
+                        break;
+                    }
+                }
+            }
+        }
+        
+        add(best);
+        booked++;
+        if (best != requested) {
+            shifted++;
+        }
+        return (int) (best - gameTime);
+    }
+    
+    /**
+     * Books a shot that is ready now but was not booked for this tick: this tick if it is a firing slot
+     * with room, otherwise the nearest later slot tick with room (the least full one if none within
+     * MAX_SHIFT ticks has).
+     * @param gameTime Current game time
+     * @param stride Ticks between the mob's firing slots (1 when every tick is a slot)
+     * @param offset The mob's slot offset
+     * @return Ticks until the booked tick; 0 means fire now
+     */
+    public int bookReady(long gameTime, int stride, int offset) {
+        int cap = TriggerMobs.maxShotsPerTick;
+        long first = align(gameTime, stride, offset);
+        long best = first;
+        int bestCount = count(first);
+        for (int shift = stride; shift <= MAX_SHIFT && bestCount >= cap; shift += stride) {
+            int count = count(first + shift);
+            if (count < bestCount) {
+                best = first + shift;
+                bestCount = count;
+            }
+        }
+        
+        add(best);
+        if (best != gameTime) {
+            deferred++;
+        }
+        return (int) (best - gameTime);
+    }
+    
+    /**
+     * Gives back a booking whose shot won't be fired (held, throttled, out of range, goal stopped),
+     * so it no longer counts toward maxShotsPerTick.
+     * @param tick The booked tick
+     */
+    public void release(long tick) {
+        int slot = (int) (tick & MASK);
+        if (slotTicks[slot] == tick && counts[slot] > 0) {
+            counts[slot]--;
+        }
+    }
+    
+    /**
+     * @return Shots booked in the wheel
+     */
+    public long getBooked() {
+        return booked;
+    }
+    
+    /**
+     * @return Booked shots moved off the tick their strategy asked for
+     */
+    public long getShifted() {
+        return shifted;
+    }
+    
+    /**
+     * @return Unbooked shots that were booked for a later tick because theirs was full or not a squad firing slot
+     */
+    public long getDeferred() {
+        return deferred;
+    }
+    
+    public void resetCounters() {
+        booked = 0;
+        shifted = 0;
+        deferred = 0;
+    }
+}
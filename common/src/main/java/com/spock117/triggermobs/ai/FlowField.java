@@ -0,0 +1,218 @@
+package com.spock117.triggermobs.ai;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.pathfinder.BlockPathTypes;
+import net.minecraft.world.level.pathfinder.Node;
+import net.minecraft.world.level.pathfinder.Path;
+import net.minecraft.world.level.pathfinder.WalkNodeEvaluator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Walking distance field around one target, built by breadth-first search outward from the
+ * target's block and spread over several ticks. Mobs anywhere in the field follow the distance
+ * downhill to the target, so one build serves every attacker.
+ * While a rebuild (after the target moved) is in progress, the last completed field keeps being used.
+ */
+public class FlowField {
+    private static final Direction[] HORIZONTAL = {Direction.NORTH, Direction.SOUTH, Direction.WEST, Direction.EAST};
+    // Neighbours are tried on the same level first, then one step up, then one step down
+    private static final int[] STEP_DY = {0, 1, -1};
+    
+    private final int radius;
+    
+    // Completed field: walkable block pos -> steps to the origin
+    private Long2IntOpenHashMap distances = null;
+    private BlockPos origin = null;
+    
+    // Field being built
+    private Long2IntOpenHashMap building = new Long2IntOpenHashMap();
+    private final LongArrayFIFOQueue frontier = new LongArrayFIFOQueue();
+    private BlockPos buildOrigin = null;
+    
+    public FlowField(int radius) {
+        this.radius = radius;
+        this.building.defaultReturnValue(-1);
+    }
+    
+    /**
+     * Starts building a new field around the given position (the old one stays in use until done).
+     * @param newOrigin The target's block position
+     */
+    public void restart(BlockPos newOrigin) {
+        buildOrigin = newOrigin.immutable();
+        building = new Long2IntOpenHashMap();
+        building.defaultReturnValue(-1);
+        frontier.clear();
+        building.put(buildOrigin.asLong(), 0);
+        frontier.enqueue(buildOrigin.asLong());
+    }
+    
+    /**
+     * @return The origin of the completed field, or null if no build has completed yet
+     */
+    public BlockPos getOrigin() {
+        return origin;
+    }
+    
+    /**
+     * @return Where the build in progress started, or null if no build is in progress
+     */
+    public BlockPos getBuildOrigin() {
+        return buildOrigin;
+    }
+    
+    public boolean isReady() {
+        return distances != null;
+    }
+    
+    /**
+     * Expands the field being built by up to maxNodes positions.
+     * @param level The level
+     * @param maxNodes Node budget for this call
+     * @return The number of nodes expanded
+     */
+    public int build(Level level, int maxNodes) {
+        if (buildOrigin == null) {
+            return 0;
+        }
+        
+        int expanded = 0;
+        BlockPos.MutableBlockPos probe = new BlockPos.MutableBlockPos();
+        while (!frontier.isEmpty() && expanded < maxNodes) {
+            long current = frontier.dequeueLong();
+            int distance = building.get(current);
+            int x = BlockPos.getX(current);
+            int y = BlockPos.getY(current);
+            int z = BlockPos.getZ(current);
+            expanded++;
+            
+            for (Direction direction : HORIZONTAL) {
+                int nx = x + direction.getStepX();
+                int nz = z + direction.getStepZ();
+                if (Math.abs(nx - buildOrigin.getX()) > radius || Math.abs(nz - buildOrigin.getZ()) > radius) {
+                    continue;
+                }
+                for (int dy : STEP_DY) {
+                    long key = BlockPos.asLong(nx, y + dy, nz);
+                    if (building.containsKey(key)) {
+                        break;
+                    }
+                    if (isWalkable(level, nx, y + dy, nz, probe) && hasHeadroom(level, x, y, z, nx, y + dy, nz, probe)) {
+                        building.put(key, distance + 1);
+                        frontier.enqueue(key);
+                        break;
+                    }
+                }
+            }
+        }
+        
+        if (frontier.isEmpty()) {
+            distances = building;
+            origin = buildOrigin;
+            building = new Long2IntOpenHashMap();
+            building.defaultReturnValue(-1);
+            buildOrigin = null;
+        }
+        return expanded;
+    }
+    
+    // Standable: two free blocks with a solid floor below, and nothing the vanilla pathfinder refuses
+    // to walk through (powder snow) or counts as damaging (fire, magma floors, berry bushes, wither roses)
+    private static boolean isWalkable(Level level, int x, int y, int z, BlockPos.MutableBlockPos probe) {
+        probe.set(x, y, z);
+        if (!level.hasChunkAt(probe) || !isPassable(level, probe)) {
+            return false;
+        }
+        probe.set(x, y + 1, z);
+        if (!isPassable(level, probe)) {
+            return false;
+        }
+        probe.set(x, y - 1, z);
+        if (!level.getBlockState(probe).isFaceSturdy(level, probe, Direction.UP)) {
+            return false;
+        }
+        BlockPathTypes type = WalkNodeEvaluator.getBlockPathTypeStatic(level, probe.set(x, y, z));
+        return type.getMalus() >= 0.0F
+                && type != BlockPathTypes.DAMAGE_FIRE
+                && type != BlockPathTypes.DAMAGE_OTHER
+                && type != BlockPathTypes.DAMAGE_CAUTIOUS;
+    }
+    
+    // Stepping one block up or down passes through a third block above the lower of the two positions
+    private static boolean hasHeadroom(Level level, int x, int y, int z, int nx, int ny, int nz, BlockPos.MutableBlockPos probe) {
+        if (ny > y) {
+            probe.set(x, y + 2, z);
+        } else if (ny < y) {
+            probe.set(nx, ny + 2, nz);
+        } else {
+            return true;
+        }
+        return isPassable(level, probe);
+    }
+    
+    private static boolean isPassable(Level level, BlockPos pos) {
+        BlockState state = level.getBlockState(pos);
+        return state.getCollisionShape(level, pos).isEmpty() && state.getFluidState().isEmpty();
+    }
+    
+    /**
+     * Follows the completed field downhill from a position toward the origin.
+     * @param level The level, to check headroom where the path steps up or down
+     * @param start The mob's block position
+     * @param maxSteps Maximum nodes in the returned path
+     * @return A path along the field, or null if the start is outside the field
+     */
+    public Path pathFrom(Level level, BlockPos start, int maxSteps) {
+        if (distances == null) {
+            return null;
+        }
+        
+        long current = start.asLong();
+        int distance = distances.getOrDefault(current, -1);
+        if (distance < 0) {
+            return null;
+        }
+        
+        BlockPos.MutableBlockPos probe = new BlockPos.MutableBlockPos();
+        List<Node> nodes = new ArrayList<>();
+        nodes.add(new Node(start.getX(), start.getY(), start.getZ()));
+        while (distance > 0 && nodes.size() < maxSteps) {
+            int x = BlockPos.getX(current);
+            int y = BlockPos.getY(current);
+            int z = BlockPos.getZ(current);
+            long best = current;
+            int bestDistance = distance;
+            for (Direction direction : HORIZONTAL) {
+                for (int dy = -1; dy <= 1; dy++) {
+                    int nx = x + direction.getStepX();
+                    int nz = z + direction.getStepZ();
+                    long key = BlockPos.asLong(nx, y + dy, nz);
+                    int d = distances.getOrDefault(key, -1);
+                    // Field neighbours one block up or down aren't always connected (the search may have reached them another way)
+                    if (d >= 0 && d < bestDistance && hasHeadroom(level, x, y, z, nx, y + dy, nz, probe)) {
+                        best = key;
+                        bestDistance = d;
+                    }
+                }
+            }
+            if (best == current) {
+                break;
+            }
+            current = best;
+            distance = bestDistance;
+            nodes.add(new Node(BlockPos.getX(current), BlockPos.getY(current), BlockPos.getZ(current)));
+        }
+        
+        if (nodes.size() < 2) {
+            return null;
+        }
+        return new Path(nodes, origin, distance == 0);
+    }
+}
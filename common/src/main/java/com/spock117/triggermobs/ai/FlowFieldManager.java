@@ -0,0 +1,119 @@
+package com.spock117.triggermobs.ai;
+
+import com.spock117.triggermobs.TriggerMobs;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.PathfinderMob;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.pathfinder.Path;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Keeps a FlowField around every entity that many armed mobs are chasing in one level,
+ * and turns the field into short paths for PathBroker.
+ * Server thread only.
+ */
+public class FlowFieldManager {
+    // Chase requests are counted over this window to decide which targets get a field
+    private static final int WINDOW_TICKS = 40;
+    // Nodes per path handed out; the strategy asks again after its path delay
+    private static final int MAX_PATH_NODES = 24;
+    
+    private final Map<LivingEntity, FlowField> fields = new IdentityHashMap<>();
+    private final Object2IntOpenHashMap<LivingEntity> requestsThisWindow = new Object2IntOpenHashMap<>();
+    
+    private long fieldPaths;
+    
+    /**
+     * Counts a chase path request toward the target, used to decide which targets get a field.
+     */
+    public void noteRequest(LivingEntity target) {
+        if (TriggerMobs.flowFieldsEnabled) {
+            requestsThisWindow.addTo(target, 1);
+        }
+    }
+    
+    /**
+     * Gets a path toward the target from its flow field.
+     * @param mob The chasing mob
+     * @param target The target
+     * @return A path, or null if the target has no completed field or the mob is outside it
+     */
+    public Path pathFor(PathfinderMob mob, LivingEntity target) {
+        FlowField field = fields.get(target);
+        if (field == null) {
+            return null;
+        }
+        Path path = field.pathFrom(mob.level(), mob.blockPosition(), MAX_PATH_NODES);
+        if (path != null) {
+            fieldPaths++;
+        }
+        return path;
+    }
+    
+    /**
+     * Creates and drops fields as targets gain and lose attackers, and spends the node budget on builds.
+     * @param level The level
+     * @param gameTime Current game time
+     */
+    public void tick(Level level, long gameTime) {
+        if (!TriggerMobs.flowFieldsEnabled) {
+            if (!fields.isEmpty() || !requestsThisWindow.isEmpty()) {
+                clear();
+            }
+            return;
+        }
+        
+        if (gameTime % WINDOW_TICKS == 0) {
+            int minAttackers = Math.max(1, TriggerMobs.flowFieldMinAttackers);
+            // Keep fields until interest falls well below the threshold, so they don't flap
+            fields.keySet().removeIf(target -> requestsThisWindow.getInt(target) < (minAttackers + 1) / 2);
+            for (Object2IntMap.Entry<LivingEntity> entry : requestsThisWindow.object2IntEntrySet()) {
+                if (entry.getIntValue() >= minAttackers) {
+                    fields.computeIfAbsent(entry.getKey(), target -> new FlowField(TriggerMobs.flowFieldRadius));
+                }
+            }
+            requestsThisWindow.clear();
+        }
+        
+        if (fields.isEmpty()) {
+            return;
+        }
+        fields.keySet().removeIf(target -> !target.isAlive() || target.level() != level);
+        
+        int budget = TriggerMobs.flowFieldNodesPerTick;
+        for (Map.Entry<LivingEntity, FlowField> entry : fields.entrySet()) {
+            FlowField field = entry.getValue();
+            if (field.getBuildOrigin() == null) {
+                // Rebuild once the target has moved away from the completed field's origin
+                BlockPos targetPos = entry.getKey().blockPosition();
+                if (field.getOrigin() == null || field.getOrigin().distManhattan(targetPos) >= 2) {
+                    field.restart(targetPos);
+                }
+            }
+            if (budget > 0) {
+                budget -= field.build(level, budget);
+            }
+        }
+    }
+    
+    public int getFieldCount() {
+        return fields.size();
+    }
+    
+    /**
+     * @return Paths handed out from flow fields instead of path searches
+     */
+    public long getFieldPaths() {
+        return fieldPaths;
+    }
+    
+    public void clear() {
+        fields.clear();
+        requestsThisWindow.clear();
+    }
+}
@@ -0,0 +1,91 @@
+package com.spock117.triggermobs.ai;
+
+import com.spock117.triggermobs.TriggerMobs;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.damagesource.DamageSource;
+import net.minecraft.world.damagesource.DamageType;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.PathfinderMob;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.entity.projectile.ProjectileUtil;
+import net.minecraft.world.level.ClipContext;
+import net.minecraft.world.phys.AABB;
+import net.minecraft.world.phys.BlockHitResult;
+import net.minecraft.world.phys.EntityHitResult;
+import net.minecraft.world.phys.HitResult;
+import net.minecraft.world.phys.Vec3;
+
+/**
+ * Instant raycast resolution for shots no player can see, instead of spawning a projectile entity.
+ * Uses the same aim (view rotation plus inaccuracy offsets) as a real shot.
+ */
+public class HitscanShot {
+    public static final ResourceKey<DamageType> MOB_BULLET = ResourceKey.create(Registries.DAMAGE_TYPE,
+        new ResourceLocation(TriggerMobs.MOD_ID, "mob_bullet"));
+    
+    /**
+     * Whether neither the shooter nor its target is within any player's view distance.
+     * Shots at players are never unobserved.
+     * @param mob The shooter
+     * @return true if the shot can be resolved as hitscan
+     */
+    public static boolean isUnobserved(PathfinderMob mob) {
+        if (!(mob.level() instanceof ServerLevel level)) {
+            return false;
+        }
+        LivingEntity target = mob.getTarget();
+        if (target instanceof Player) {
+            return false;
+        }
+        
+        double viewBlocks = level.getServer().getPlayerList().getViewDistance() * 16.0;
+        double viewSqr = viewBlocks * viewBlocks;
+        for (Player player : level.players()) {
+            if (horizontalDistanceSqr(player, mob) <= viewSqr
+                || (target != null && horizontalDistanceSqr(player, target) <= viewSqr)) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static double horizontalDistanceSqr(Entity a, Entity b) {
+        double dx = a.getX() - b.getX();
+        double dz = a.getZ() - b.getZ();
+        return dx * dx + dz * dz;
+    }
+    
+    /**
+     * Casts the shot and damages the first living entity it hits before any block.
+     * @param mob The shooter
+     * @param yaw Final yaw, inaccuracy included
+     * @param pitch Final pitch, inaccuracy included
+     * @return The entity that was hit, or null for a miss
+     */
+    public static Entity resolve(PathfinderMob mob, float yaw, float pitch) {
+        Vec3 start = mob.getEyePosition();
+        Vec3 end = start.add(Vec3.directionFromRotation(pitch, yaw).scale(TriggerMobs.hitscanRange));
+        
+        BlockHitResult blockHit = mob.level().clip(new ClipContext(start, end, ClipContext.Block.COLLIDER, ClipContext.Fluid.NONE, mob));
+        if (blockHit.getType() != HitResult.Type.MISS) {
+            end = blockHit.getLocation();
+        }
+        
+        EntityHitResult entityHit = ProjectileUtil.getEntityHitResult(mob.level(), mob, start, end,
+            new AABB(start, end).inflate(1.0),
+            entity -> entity != mob && entity instanceof LivingEntity && entity.isPickable() && !entity.isSpectator());
+        if (entityHit == null) {
+            return null;
+        }
+        
+        Entity hit = entityHit.getEntity();
+        DamageSource source = new DamageSource(
+            mob.level().registryAccess().registryOrThrow(Registries.DAMAGE_TYPE).getHolderOrThrow(MOB_BULLET), mob);
+        hit.hurt(source, TriggerMobs.hitscanDamage);
+        return hit;
+    }
+}
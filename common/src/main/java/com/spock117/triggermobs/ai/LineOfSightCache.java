@@ -0,0 +1,155 @@
+package com.spock117.triggermobs.ai;
+
+import com.spock117.triggermobs.TriggerMobs;
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.Mob;
+
+/**
+ * Short-lived line-of-sight results for one level, shared between mobs.
+ * Results are keyed by the blocks the shooter's and the target's eyes are in (the ray's end points), so
+ * shooters whose eyes share a block reuse one raycast against the same target, while a short mob and a
+ * tall one standing in the same block do not. A result is dropped when it is older than the
+ * configured TTL, or when a block changed in any chunk section between the two positions after it was cast.
+ * Server thread only.
+ */
+public class LineOfSightCache {
+    // target pos -> (shooter pos -> packed result: cast tick << 1 | visible)
+    private final Long2ObjectOpenHashMap<Long2LongOpenHashMap> resultsByTarget = new Long2ObjectOpenHashMap<>();
+    // section pos -> last game time a block changed in it
+    private final Long2LongOpenHashMap sectionChangedAt = new Long2LongOpenHashMap();
+    
+    private long hits;
+    private long misses;
+    private long invalidations;
+    
+    /**
+     * Checks line of sight from a mob to its target, reusing a recent result if one is still valid.
+     * @param mob The shooter
+     * @param target The target
+     * @return true if the mob can see the target
+     */
+    public boolean hasLineOfSight(Mob mob, LivingEntity target) {
+        int ttl = TriggerMobs.losCacheTicks;
+        if (ttl <= 0) {
+            return mob.getSensing().hasLineOfSight(target);
+        }
+        
+        long now = mob.level().getGameTime();
+        BlockPos from = eyeBlock(mob);
+        BlockPos to = eyeBlock(target);
+        long fromKey = from.asLong();
+        long toKey = to.asLong();
+        
+        Long2LongOpenHashMap results = resultsByTarget.get(toKey);
+        if (results != null && results.containsKey(fromKey)) {
+            long packed = results.get(fromKey);
+            long castAt = packed >>> 1;
+            if (now - castAt < ttl) {
+                if (!isChangedSince(from, to, castAt)) {
+                    hits++;
+                    return (packed & 1L) != 0;
+                }
+                invalidations++;
+            }
+        }
+        
+        misses++;
+        boolean visible = mob.getSensing().hasLineOfSight(target);
+        if (results == null) {
+            results = new Long2LongOpenHashMap();
+            resultsByTarget.put(toKey, results);
+        }
+        results.put(fromKey, now << 1 | (visible ? 1L : 0L));
+        return visible;
+    }
+    
+    private static BlockPos eyeBlock(LivingEntity entity) {
+        return BlockPos.containing(entity.getX(), entity.getEyeY(), entity.getZ());
+    }
+    
+    // Whether a block changed after the given tick in any section of the box spanned by the two eye blocks
+    private boolean isChangedSince(BlockPos from, BlockPos to, long castAt) {
+        if (sectionChangedAt.isEmpty()) {
+            return false;
+        }
+        int minX = SectionPos.blockToSectionCoord(Math.min(from.getX(), to.getX()));
+        int minY = SectionPos.blockToSectionCoord(Math.min(from.getY(), to.getY()));
+        int minZ = SectionPos.blockToSectionCoord(Math.min(from.getZ(), to.getZ()));
+        int maxX = SectionPos.blockToSectionCoord(Math.max(from.getX(), to.getX()));
+        int maxY = SectionPos.blockToSectionCoord(Math.max(from.getY(), to.getY()));
+        int maxZ = SectionPos.blockToSectionCoord(Math.max(from.getZ(), to.getZ()));
+        
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    if (sectionChangedAt.getOrDefault(SectionPos.asLong(x, y, z), Long.MIN_VALUE) >= castAt) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Records a block change, invalidating cached results whose ray box covers its section.
+     * @param pos The changed block
+     * @param gameTime Current game time
+     */
+    public void onBlockChanged(BlockPos pos, long gameTime) {
+        sectionChangedAt.put(SectionPos.asLong(pos), gameTime);
+    }
+    
+    /**
+     * Drops expired results and section change records. Call periodically.
+     * @param gameTime Current game time
+     */
+    public void sweep(long gameTime) {
+        long oldest = gameTime - Math.max(1, TriggerMobs.losCacheTicks);
+        for (var iterator = resultsByTarget.long2ObjectEntrySet().fastIterator(); iterator.hasNext(); ) {
+            Long2ObjectMap.Entry<Long2LongOpenHashMap> entry = iterator.next();
+            Long2LongOpenHashMap results = entry.getValue();
+            for (var resultIterator = results.long2LongEntrySet().fastIterator(); resultIterator.hasNext(); ) {
+                if ((resultIterator.next().getLongValue() >>> 1) < oldest) {
+                    resultIterator.remove();
+                }
+            }
+            if (results.isEmpty()) {
+                iterator.remove();
+            }
+        }
+        for (var iterator = sectionChangedAt.long2LongEntrySet().fastIterator(); iterator.hasNext(); ) {
+            Long2LongMap.Entry entry = iterator.next();
+            if (entry.getLongValue() < oldest) {
+                iterator.remove();
+            }
+        }
+    }
+    
+    public long getHits() {
+        return hits;
+    }
+    
+    public long getMisses() {
+        return misses;
+    }
+    
+    /**
+     * @return Lookups that found a result within its TTL but rejected it because of a block change
+     */
+    public long getInvalidations() {
+        return invalidations;
+    }
+    
+    public void resetCounters() {
+        hits = 0;
+        misses = 0;
+        invalidations = 0;
+    }
+}
@@ -0,0 +1,168 @@
+package com.spock117.triggermobs.ai;
+
+import com.nukateam.ntgl.common.data.holders.WeaponMode;
+import com.nukateam.ntgl.common.network.ServerPlayHandler;
+import com.nukateam.ntgl.common.network.message.C2SMessageShoot;
+import com.spock117.triggermobs.TriggerMobs;
+import com.spock117.triggermobs.util.SpreadProfile;
+import net.minecraft.world.InteractionHand;
+import net.minecraft.world.entity.PathfinderMob;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The single path through which mobs fire NTGL weapons.
+ * NTGL only exposes shooting through ServerPlayHandler.handleShoot, so the shot is still described
+ * with a C2SMessageShoot, but it is built and handed over in one place. Failures are counted and
+ * logged (full stack trace once per exception type) instead of being silently dropped.
+ */
+public class MobShooter {
+    private static final LongAdder SHOTS_FIRED = new LongAdder();
+    private static final LongAdder SHOTS_FAILED = new LongAdder();
+    private static final LongAdder SHOTS_HITSCAN = new LongAdder();
+    // Exception types already logged with a stack trace; later ones are only counted
+    private static final Set<Class<?>> REPORTED_FAILURES = ConcurrentHashMap.newKeySet();
+    // Reused for every shot's spread (mobs only shoot on the server thread)
+    private static final SpreadProfile.Sample SPREAD = new SpreadProfile.Sample();
+    
+    /**
+     * Fires the weapon in a mob's hand along its current view direction, with random inaccuracy.
+     * The shot is aimed now; with batching enabled it is fired with the rest of the level's shots
+     * at the end of the tick (see FireQueue).
+     * @param mob The shooter
+     * @param hand The hand holding the weapon
+     * @return true if the shot was queued, or fired without NTGL throwing
+     */
+    public static boolean fire(PathfinderMob mob, InteractionHand hand) {
+        return fire(mob, hand, SpreadProfile.DEFAULT);
+    }
+    
+    /**
+     * Fires the weapon in a mob's hand along its current view direction, with the given spread.
+     * @param mob The shooter
+     * @param hand The hand holding the weapon
+     * @param spread The weapon's spread profile
+     * @return true if the shot was queued, or fired without NTGL throwing
+     */
+    public static boolean fire(PathfinderMob mob, InteractionHand hand, SpreadProfile spread) {
+        return fire(mob, hand, spread, null);
+    }
+    
+    /**
+     * Fires the weapon in a mob's hand along its current view direction, with the given spread
+     * scaled by the gun goal's accuracy model.
+     * @param mob The shooter
+     * @param hand The hand holding the weapon
+     * @param spread The weapon's spread profile
+     * @param context The gun goal's context for this shot, or null for unscaled spread
+     * @return true if the shot was queued, or fired without NTGL throwing
+     */
+    public static boolean fire(PathfinderMob mob, InteractionHand hand, SpreadProfile spread, ShotContext context) {
+        float spreadScale = context != null ? context.getSpreadScale() : 1.0F;
+        spread.sample(mob.getRandom(), SPREAD);
+        float pitchOffset = SPREAD.getPitchOffset() * spreadScale;
+        float yawOffset = SPREAD.getYawOffset() * spreadScale;
+        float yaw = mob.getViewYRot(1.0F) + yawOffset;
+        float pitch = mob.getViewXRot(1.0F) + pitchOffset;
+        
+        if (TriggerMobs.batchMobShots && !mob.level().isClientSide()) {
+            CombatLevelContext.get(mob.level()).getFireQueue().enqueue(mob, hand, yaw, pitch, pitchOffset, yawOffset, context);
+            return true;
+        }
+        return fireNow(mob, hand, yaw, pitch, pitchOffset, yawOffset, context);
+    }
+    
+    /**
+     * Fires an aimed shot right away: as a hitscan raycast if enabled and no player can see it,
+     * otherwise through NTGL. Hitscan shots use no ammo, so they are counted on the context instead
+     * and the gun goal reloads when they would have emptied the magazine.
+     * @param context The gun goal's context for this shot, or null
+     * @return true if the shot was resolved, or fired without NTGL throwing
+     */
+    public static boolean fireNow(PathfinderMob mob, InteractionHand hand, float yaw, float pitch, float pitchOffset, float yawOffset,
+                                  ShotContext context) {
+        if (TriggerMobs.hitscanUnobservedShots && HitscanShot.isUnobserved(mob)) {
+            HitscanShot.resolve(mob, yaw, pitch);
+            SHOTS_HITSCAN.increment();
+            if (context != null) {
+                context.onHitscanRound();
+            }
+            return true;
+        }
+        return fire(mob, createMessage(mob.getId(), yaw, pitch, pitchOffset, yawOffset, hand));
+    }
+    
+    /**
+     * Hands a prepared shot to NTGL.
+     * @param mob The shooter
+     * @param message The shot, built by createMessage
+     * @return true if NTGL accepted the shot without throwing
+     */
+    public static boolean fire(PathfinderMob mob, C2SMessageShoot message) {
+        try {
+            ServerPlayHandler.handleShoot(message, mob);
+            SHOTS_FIRED.increment();
+            return true;
+        } catch (Exception e) {
+            recordFailure(mob, e);
+            return false;
+        }
+    }
+    
+    /**
+     * Builds the NTGL shot description for an already aimed shot.
+     * @param mobId Shooter entity id
+     * @param yaw Final yaw, inaccuracy included
+     * @param pitch Final pitch, inaccuracy included
+     * @param pitchOffset Pitch inaccuracy
+     * @param yawOffset Yaw inaccuracy
+     * @param hand The hand holding the weapon
+     * @return The shot message
+     */
+    public static C2SMessageShoot createMessage(int mobId, float yaw, float pitch, float pitchOffset, float yawOffset, InteractionHand hand) {
+        return new C2SMessageShoot(
+                mobId,
+                yaw,
+                pitch,
+                pitchOffset,
+                yawOffset,
+                hand,
+                WeaponMode.PRIMARY
+        );
+    }
+    
+    static void recordFailure(PathfinderMob mob, Exception e) {
+        SHOTS_FAILED.increment();
+        if (REPORTED_FAILURES.add(e.getClass())) {
+            TriggerMobs.LOGGER.error("Mob {} failed to fire {} (further {} failures are only counted, see /triggermobs fire)",
+                mob.getType().getDescriptionId(), mob.getMainHandItem().getItem(), e.getClass().getSimpleName(), e);
+        }
+    }
+    
+    public static long getShotsFired() {
+        return SHOTS_FIRED.sum();
+    }
+    
+    public static long getShotsFailed() {
+        return SHOTS_FAILED.sum();
+    }
+    
+    /**
+     * @return Shots resolved as hitscan raycasts instead of NTGL projectiles
+     */
+    public static long getShotsHitscan() {
+        return SHOTS_HITSCAN.sum();
+    }
+    
+    /**
+     * Resets the counters and logs the next failure of each type again.
+     */
+    public static void resetCounters() {
+        SHOTS_FIRED.reset();
+        SHOTS_FAILED.reset();
+        SHOTS_HITSCAN.reset();
+        REPORTED_FAILURES.clear();
+    }
+}
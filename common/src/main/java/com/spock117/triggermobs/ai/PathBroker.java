@@ -0,0 +1,283 @@
+package com.spock117.triggermobs.ai;
+
+import com.spock117.triggermobs.TriggerMobs;
+import com.spock117.triggermobs.util.CombatProfiler;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.PathfinderMob;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.pathfinder.Node;
+import net.minecraft.world.level.pathfinder.Path;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-level broker for the paths weapon strategies request when chasing a target.
+ * - At most pathBudgetPerTick searches run per tick; the rest wait in a queue, most urgent first
+ *   (mobs standing still before mobs that still have a path, then longest waiting)
+ * - A path found for one mob is reused for a while by mobs that start in the same 4x4x4 cell
+ *   and chase a target in the same block
+ * - Mobs chasing an entity that many others chase follow its flow field instead (see FlowFieldManager)
+ * Server thread only.
+ */
+public class PathBroker {
+    // Reuse cells are 4x4x4 blocks
+    private static final int CELL_SHIFT = 2;
+    
+    private static final class PendingRequest {
+        PathfinderMob mob;
+        LivingEntity target;
+        double speed;
+        long requestedAt;
+    }
+    
+    private record CachedPath(Path path, long foundAt) {
+    }
+    
+    // Queued requests in arrival order, one per mob
+    private final List<PendingRequest> pending = new ArrayList<>();
+    private final Map<PathfinderMob, PendingRequest> pendingByMob = new IdentityHashMap<>();
+    // target block pos -> (start cell -> recent path)
+    private final Long2ObjectOpenHashMap<Long2ObjectOpenHashMap<CachedPath>> pathsByTarget = new Long2ObjectOpenHashMap<>();
+    
+    private final FlowFieldManager flowFields = new FlowFieldManager();
+    
+    private int searchesThisTick = 0;
+    private long searches;
+    private long reuses;
+    private long deferred;
+    
+    /**
+     * Starts the mob moving toward its target through the level's path broker.
+     * Replaces mob.getNavigation().moveTo(target, speed) in weapon strategies.
+     */
+    public static void moveTo(PathfinderMob mob, LivingEntity target, double speed) {
+        CombatLevelContext.get(mob.level()).getPathBroker().request(mob, target, speed);
+    }
+    
+    /**
+     * Gives the mob a path to the target now (reused or searched) if the budget allows, otherwise queues it.
+     * @param mob The mob
+     * @param target The entity to move toward
+     * @param speed Speed modifier for the navigation
+     */
+    public void request(PathfinderMob mob, LivingEntity target, double speed) {
+        flowFields.noteRequest(target);
+        
+        // Still following a path to the target's current block: nothing to search for
+        if (!mob.getNavigation().isDone() && target.blockPosition().equals(mob.getNavigation().getTargetPos())) {
+            return;
+        }
+        
+        // Heavily targeted entity: follow its flow field, no search needed
+        Path fieldPath = flowFields.pathFor(mob, target);
+        if (fieldPath != null && mob.getNavigation().moveTo(fieldPath, speed)) {
+            removePending(mob);
+            return;
+        }
+        
+        long now = mob.level().getGameTime();
+        if (tryReuse(mob, target, speed, now)) {
+            removePending(mob);
+            return;
+        }
+        
+        int budget = TriggerMobs.pathBudgetPerTick;
+        if (budget <= 0 || searchesThisTick < budget) {
+            search(mob, target, speed, now);
+            removePending(mob);
+            return;
+        }
+        
+        // Over budget: queue (or update the mob's existing request)
+        PendingRequest request = pendingByMob.get(mob);
+        if (request == null) {
+            request = new PendingRequest();
+            request.mob = mob;
+            request.requestedAt = now;
+            pendingByMob.put(mob, request);
+            pending.add(request);
+            deferred++;
+        }
+        request.target = target;
+        request.speed = speed;
+    }
+    
+    /**
+     * Starts a new tick's budget and serves queued requests with it, most urgent first.
+     * Also advances flow field builds.
+     * @param level The level
+     * @param gameTime Current game time
+     */
+    public void tick(Level level, long gameTime) {
+        long phaseStart = CombatProfiler.start();
+        flowFields.tick(level, gameTime);
+        CombatProfiler.stop(CombatProfiler.Phase.FLOW_FIELD, null, phaseStart);
+        searchesThisTick = 0;
+        if (gameTime % 20 == 0) {
+            pruneCache(gameTime);
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+        
+        phaseStart = CombatProfiler.start();
+        pending.sort(Comparator
+            .comparing((PendingRequest request) -> !request.mob.getNavigation().isDone())
+            .thenComparingLong(request -> request.requestedAt));
+        
+        int budget = TriggerMobs.pathBudgetPerTick;
+        int served = 0;
+        while (served < pending.size() && (budget <= 0 || searchesThisTick < budget)) {
+            PendingRequest request = pending.get(served++);
+            PathfinderMob mob = request.mob;
+            // The goal may have moved on since the request was made
+            if (!mob.isAlive() || mob.getTarget() != request.target || !request.target.isAlive()) {
+                continue;
+            }
+            Path fieldPath = flowFields.pathFor(mob, request.target);
+            if (fieldPath != null && mob.getNavigation().moveTo(fieldPath, request.speed)) {
+                continue;
+            }
+            if (!tryReuse(mob, request.target, request.speed, gameTime)) {
+                search(mob, request.target, request.speed, gameTime);
+            }
+        }
+        
+        for (int i = 0; i < served; i++) {
+            pendingByMob.remove(pending.get(i).mob);
+        }
+        pending.subList(0, served).clear();
+        CombatProfiler.stop(CombatProfiler.Phase.PATHFIND, null, phaseStart);
+    }
+    
+    private boolean tryReuse(PathfinderMob mob, LivingEntity target, double speed, long now) {
+        int reuseTicks = TriggerMobs.pathReuseTicks;
+        if (reuseTicks <= 0) {
+            return false;
+        }
+        
+        Long2ObjectOpenHashMap<CachedPath> paths = pathsByTarget.get(target.blockPosition().asLong());
+        if (paths == null) {
+            return false;
+        }
+        BlockPos pos = mob.blockPosition();
+        CachedPath cached = paths.get(cellOf(pos));
+        if (cached == null || now - cached.foundAt() > reuseTicks) {
+            return false;
+        }
+        // The path starts where the searching mob stood, which may be across the cell
+        int start = joinIndex(cached.path(), pos);
+        if (start < 0) {
+            return false;
+        }
+        
+        // Each mob follows its own copy; the node objects themselves are not modified while following
+        if (mob.getNavigation().moveTo(copyOf(cached.path(), start), speed)) {
+            reuses++;
+            return true;
+        }
+        return false;
+    }
+    
+    private void search(PathfinderMob mob, LivingEntity target, double speed, long now) {
+        searchesThisTick++;
+        searches++;
+        
+        Path path = mob.getNavigation().createPath(target, 1);
+        if (path == null) {
+            return;
+        }
+        mob.getNavigation().moveTo(path, speed);
+        
+        if (TriggerMobs.pathReuseTicks > 0) {
+            pathsByTarget.computeIfAbsent(target.blockPosition().asLong(), key -> new Long2ObjectOpenHashMap<>())
+                .put(cellOf(mob.blockPosition()), new CachedPath(copyOf(path, 0), now));
+        }
+    }
+    
+    private void removePending(PathfinderMob mob) {
+        PendingRequest request = pendingByMob.remove(mob);
+        if (request != null) {
+            pending.remove(request);
+        }
+    }
+    
+    private static long cellOf(BlockPos pos) {
+        return BlockPos.asLong(pos.getX() >> CELL_SHIFT, pos.getY() >> CELL_SHIFT, pos.getZ() >> CELL_SHIFT);
+    }
+    
+    /**
+     * Finds the furthest node along the path that is the mob's own block or a neighbour of it
+     * (one block sideways, optionally one up or down), so a mob never starts by walking back or through a wall.
+     * @return The node index, or -1 if the path doesn't pass next to the mob
+     */
+    private static int joinIndex(Path path, BlockPos pos) {
+        for (int i = path.getNodeCount() - 1; i >= 0; i--) {
+            Node node = path.getNode(i);
+            int dx = Math.abs(node.x - pos.getX());
+            int dz = Math.abs(node.z - pos.getZ());
+            if (dx + dz <= 1 && Math.abs(node.y - pos.getY()) <= 1) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private static Path copyOf(Path path, int start) {
+        List<Node> nodes = new ArrayList<>(path.getNodeCount() - start);
+        for (int i = start; i < path.getNodeCount(); i++) {
+            nodes.add(path.getNode(i));
+        }
+        return new Path(nodes, path.getTarget(), path.canReach());
+    }
+    
+    private void pruneCache(long gameTime) {
+        long oldest = gameTime - Math.max(0, TriggerMobs.pathReuseTicks);
+        for (var iterator = pathsByTarget.values().iterator(); iterator.hasNext(); ) {
+            Long2ObjectOpenHashMap<CachedPath> paths = iterator.next();
+            paths.values().removeIf(cached -> cached.foundAt() < oldest);
+            if (paths.isEmpty()) {
+                iterator.remove();
+            }
+        }
+    }
+    
+    /**
+     * Drops queued requests and cached paths.
+     */
+    public void clear() {
+        flowFields.clear();
+        pending.clear();
+        pendingByMob.clear();
+        pathsByTarget.clear();
+    }
+    
+    public FlowFieldManager getFlowFields() {
+        return flowFields;
+    }
+    
+    public int getPendingCount() {
+        return pending.size();
+    }
+    
+    public long getSearches() {
+        return searches;
+    }
+    
+    public long getReuses() {
+        return reuses;
+    }
+    
+    /**
+     * @return Requests that had to wait for a later tick's budget
+     */
+    public long getDeferred() {
+        return deferred;
+    }
+}
@@ -0,0 +1,49 @@
+package com.spock117.triggermobs.ai;
+
+/**
+ * What the gun goal knows about a shot that the fire path needs: the situational spread multiplier
+ * from the weapon's AccuracyModel, and the strategy that decided the shot (for the profiler).
+ * Each goal owns one and refills it before every shot; strategies pass it on to MobShooter.fire.
+ * It also counts the goal's hitscan shots, which NTGL never takes out of the magazine.
+ */
+public class ShotContext {
+    private float spreadScale = 1.0F;
+    private Class<?> strategy;
+    private int hitscanRounds;
+    
+    /**
+     * Prepares the context for the next shot.
+     * @param spreadScale Spread multiplier
+     * @param strategy Class of the strategy firing the shot
+     */
+    public void set(float spreadScale, Class<?> strategy) {
+        this.spreadScale = spreadScale;
+        this.strategy = strategy;
+    }
+    
+    public float getSpreadScale() {
+        return spreadScale;
+    }
+    
+    public Class<?> getStrategy() {
+        return strategy;
+    }
+    
+    void onHitscanRound() {
+        hitscanRounds++;
+    }
+    
+    /**
+     * @return Hitscan shots fired since the last resetHitscanRounds
+     */
+    public int getHitscanRounds() {
+        return hitscanRounds;
+    }
+    
+    /**
+     * Forgets the counted hitscan shots, once the weapon has been reloaded.
+     */
+    public void resetHitscanRounds() {
+        hitscanRounds = 0;
+    }
+}
@@ -0,0 +1,248 @@
+package com.spock117.triggermobs.ai;
+
+import com.spock117.triggermobs.TriggerMobs;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.entity.PathfinderMob;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups armed mobs that are close together and share a target into squads, and makes the
+ * squad-wide decisions a few times a second instead of every mob deciding alone:
+ * - Flanking: each member strafes away from the squad's centre line, so the squad fans out
+ *   around the target instead of flipping coins for a direction
+ * - Advancing: only the members nearest the target (about half) move up at a time; the rest hold
+ *   position while they can see the target, which also spreads the chase path searches out
+ * - Firing slots: members fire on different ticks instead of all at once (the FireScheduler books shots on them)
+ * Mobs report in on each AI decision and read their Assignment back. One per level (see CombatLevelContext).
+ */
+public class SquadCoordinator {
+    private static final int UPDATE_INTERVAL = 10;
+    // Members that haven't reported for this long (goal stopped, unloaded) are dropped
+    private static final int MEMBER_TIMEOUT = 40;
+    // Firing slots repeat every this many ticks at most, so no shot waits longer than 3 ticks
+    static final int MAX_FIRE_STRIDE = 4;
+    
+    private static final Comparator<Member> BY_DISTANCE = Comparator.comparingDouble(member -> member.distanceSqr);
+    
+    /**
+     * A mob's current squad orders. Owned by the mob's goal and updated in place by the coordinator.
+     */
+    public static final class Assignment {
+        private int squadSize = 1;
+        private int index;
+        private boolean strafeLeft;
+        private boolean holding;
+        
+        /**
+         * Whether the mob is in a squad with other mobs (otherwise it decides alone).
+         */
+        public boolean isInSquad() {
+            return squadSize > 1;
+        }
+        
+        /**
+         * The strafe direction that moves the mob away from the squad's centre line.
+         */
+        public boolean isStrafeLeft() {
+            return strafeLeft;
+        }
+        
+        /**
+         * Whether the mob should hold position instead of moving up to the target.
+         */
+        public boolean isHolding() {
+            return holding;
+        }
+        
+        /**
+         * Whether the mob's firing slot is this tick. Always true outside a squad.
+         * @param gameTime Current game time
+         */
+        public boolean isFireSlot(long gameTime) {
+            int stride = getFireStride();
+            return stride <= 1 || (gameTime + index) % stride == 0;
+        }
+        
+        /**
+         * Ticks between the mob's firing slots (1 outside a squad).
+         */
+        public int getFireStride() {
+            return Math.min(squadSize, MAX_FIRE_STRIDE);
+        }
+        
+        /**
+         * The mob's slot ticks are those where (tick + offset) is a multiple of the stride.
+         */
+        public int getFireOffset() {
+            return index;
+        }
+        
+        public void clear() {
+            squadSize = 1;
+            index = 0;
+            strafeLeft = false;
+            holding = false;
+        }
+    }
+    
+    private static final class Member {
+        final PathfinderMob mob;
+        final Assignment assignment;
+        LivingEntity target;
+        double distanceSqr;
+        boolean inRange;
+        long lastSeen;
+        
+        Member(PathfinderMob mob, Assignment assignment) {
+            this.mob = mob;
+            this.assignment = assignment;
+        }
+    }
+    
+    private final Map<Mob, Member> members = new IdentityHashMap<>();
+    private final Map<LivingEntity, List<Member>> byTarget = new IdentityHashMap<>();
+    private final List<List<Member>> squads = new ArrayList<>();
+    
+    /**
+     * Reports a mob's state for the next squad update.
+     * @param mob The armed mob
+     * @param target Its target
+     * @param assignment The mob's assignment, updated in place on squad updates
+     * @param distanceSqr Squared distance to the target
+     * @param inRange Whether the target is within the mob's weapon range
+     * @param gameTime Current game time
+     */
+    public void report(PathfinderMob mob, LivingEntity target, Assignment assignment, double distanceSqr, boolean inRange, long gameTime) {
+        Member member = members.get(mob);
+        if (member == null || member.assignment != assignment) {
+            member = new Member(mob, assignment);
+            members.put(mob, member);
+        }
+        if (member.target != target) {
+            // New target: the old squad's orders no longer apply
+            assignment.clear();
+            member.target = target;
+        }
+        member.distanceSqr = distanceSqr;
+        member.inRange = inRange;
+        member.lastSeen = gameTime;
+    }
+    
+    /**
+     * Takes a mob out of its squad, e.g. when its goal stops.
+     */
+    public void remove(Mob mob) {
+        Member member = members.remove(mob);
+        if (member != null) {
+            member.assignment.clear();
+        }
+    }
+    
+    /**
+     * Regroups the squads and hands out new orders every UPDATE_INTERVAL ticks.
+     * @param gameTime Current game time
+     */
+    public void tick(long gameTime) {
+        if (gameTime % UPDATE_INTERVAL != 0 || members.isEmpty()) {
+            return;
+        }
+        
+        for (Iterator<Member> iterator = members.values().iterator(); iterator.hasNext(); ) {
+            Member member = iterator.next();
+            if (!member.mob.isAlive() || member.mob.isRemoved() || !member.target.isAlive()
+                || gameTime - member.lastSeen > MEMBER_TIMEOUT) {
+                member.assignment.clear();
+                iterator.remove();
+            } else {
+                byTarget.computeIfAbsent(member.target, key -> new ArrayList<>()).add(member);
+            }
+        }
+        
+        double radiusSqr = (double) TriggerMobs.squadRadius * TriggerMobs.squadRadius;
+        for (Map.Entry<LivingEntity, List<Member>> entry : byTarget.entrySet()) {
+            // Greedy clustering: join the first squad whose first member is close enough
+            for (Member member : entry.getValue()) {
+                List<Member> squad = null;
+                for (List<Member> candidate : squads) {
+                    if (candidate.get(0).mob.distanceToSqr(member.mob) <= radiusSqr) {
+                        squad = candidate;
+                        break;
+                    }
+                }
+                if (squad == null) {
+                    squad = new ArrayList<>();
+                    squads.add(squad);
+                }
+                squad.add(member);
+            }
+            
+            for (List<Member> squad : squads) {
+                assign(entry.getKey(), squad);
+            }
+            squads.clear();
+        }
+        byTarget.clear();
+    }
+    
+    private static void assign(LivingEntity target, List<Member> squad) {
+        int size = squad.size();
+        if (size == 1) {
+            squad.get(0).assignment.clear();
+            return;
+        }
+        
+        double centreX = 0;
+        double centreZ = 0;
+        for (Member member : squad) {
+            centreX += member.mob.getX();
+            centreZ += member.mob.getZ();
+        }
+        centreX /= size;
+        centreZ /= size;
+        
+        // Nearest first: they get the advancing slots and the earliest firing slots
+        squad.sort(BY_DISTANCE);
+        int advancing = Math.max(2, (size + 1) / 2);
+        
+        for (int i = 0; i < size; i++) {
+            Member member = squad.get(i);
+            Assignment assignment = member.assignment;
+            assignment.squadSize = size;
+            assignment.index = i;
+            
+            if (!member.inRange) {
+                assignment.holding = advancing <= 0;
+                advancing--;
+            } else {
+                assignment.holding = false;
+            }
+            
+            // Move away from the line through the target and the squad centre. side > 0 means the mob is on
+            // its own left of that line (left of the facing direction is (forwardZ, -forwardX)); positive
+            // sideways input moves an entity to its left (Entity.moveRelative), which the strategies use
+            // when strafeLeft is false
+            double forwardX = target.getX() - member.mob.getX();
+            double forwardZ = target.getZ() - member.mob.getZ();
+            double offsetX = member.mob.getX() - centreX;
+            double offsetZ = member.mob.getZ() - centreZ;
+            double side = offsetX * forwardZ - offsetZ * forwardX;
+            assignment.strafeLeft = side != 0 ? side < 0 : (i & 1) == 0;
+        }
+    }
+    
+    public int getMemberCount() {
+        return members.size();
+    }
+    
+    public void clear() {
+        members.values().forEach(member -> member.assignment.clear());
+        members.clear();
+    }
+}
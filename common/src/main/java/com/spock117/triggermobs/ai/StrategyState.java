@@ -0,0 +1,129 @@
+package com.spock117.triggermobs.ai;
+
+import net.minecraft.world.entity.PathfinderMob;
+
+/**
+ * Per-mob movement state used by the (stateless, shared) weapon strategies.
+ * Owned by MobGunAttackGoal and passed into every strategy call.
+ */
+public class StrategyState {
+    private boolean strafeLeft;
+    private int strafeCooldown;
+    // Strafe direction ordered by the mob's squad (see SquadCoordinator), replacing the random one
+    private boolean strafeAssigned;
+    private int updatePathDelay;
+    
+    // Last strafe input set by the strategy, reapplied on ticks where the strategy is skipped (AI LOD)
+    private boolean steering;
+    private float steerForward;
+    private float steerSide;
+    
+    /**
+     * Resets to the state of a freshly equipped weapon.
+     */
+    public void reset() {
+        strafeLeft = false;
+        strafeCooldown = 0;
+        updatePathDelay = 0;
+        steering = false;
+        strafeAssigned = false;
+    }
+    
+    /**
+     * Counts down the strafe cooldown and picks a new strafe direction when it runs out.
+     * @param mob The mob (for its random source)
+     */
+    public void tickStrafe(PathfinderMob mob) {
+        if (strafeAssigned) {
+            return;
+        }
+        if (strafeCooldown > 0) {
+            strafeCooldown--;
+            if (strafeCooldown == 0) {
+                strafeLeft = mob.getRandom().nextBoolean();
+            }
+        }
+    }
+    
+    /**
+     * Uses a strafe direction decided by the mob's squad until clearAssignedStrafe is called.
+     * @param left The direction, as returned by isStrafeLeft
+     */
+    public void assignStrafe(boolean left) {
+        strafeAssigned = true;
+        strafeLeft = left;
+    }
+    
+    /**
+     * Goes back to picking random strafe directions.
+     */
+    public void clearAssignedStrafe() {
+        strafeAssigned = false;
+    }
+    
+    /**
+     * Whether the mob is currently strafing to the left.
+     */
+    public boolean isStrafeLeft() {
+        return strafeLeft;
+    }
+    
+    /**
+     * Counts down the path update delay.
+     * @return true if the path should be recomputed this tick
+     */
+    public boolean tickPathDelay() {
+        return --updatePathDelay <= 0;
+    }
+    
+    /**
+     * Sets the number of ticks until the path is recomputed.
+     * Stretched while the combat throttle is active.
+     */
+    public void setUpdatePathDelay(int ticks) {
+        updatePathDelay = ticks * CombatThrottle.getStage().getPathDelayMultiplier();
+    }
+    
+    /**
+     * Called after each shot: holds the current strafe direction for a while.
+     * @param mob The mob (for its random source)
+     * @param strategy The strategy that fired, providing the cooldown length
+     */
+    public void onShotFired(PathfinderMob mob, WeaponAIStrategy strategy) {
+        int base = strategy.getStrafeCooldownBase();
+        strafeCooldown = base + mob.getRandom().nextInt(base);
+    }
+    
+    /**
+     * Sets the mob's forward/sideways movement input and remembers it for reapplySteering.
+     * @param mob The mob
+     * @param forward Forward input (negative backs away)
+     * @param side Sideways input (negative strafes left)
+     */
+    public void steer(PathfinderMob mob, float forward, float side) {
+        steering = true;
+        steerForward = forward;
+        steerSide = side;
+        mob.setZza(forward);
+        mob.setXxa(side);
+    }
+    
+    /**
+     * Forgets the last movement input; called before each strategy decision.
+     */
+    public void clearSteering() {
+        steering = false;
+    }
+    
+    /**
+     * Repeats the last movement input on ticks where the strategy's move() is not run.
+     * Navigation keeps following its path on its own, so only strafing needs reapplying.
+     * @param mob The mob
+     */
+    public void reapplySteering(PathfinderMob mob) {
+        if (steering) {
+            mob.setZza(steerForward);
+            mob.setXxa(steerSide);
+        }
+    }
+}
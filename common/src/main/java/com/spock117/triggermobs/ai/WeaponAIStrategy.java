@@ -1,6 +1,7 @@
 package com.spock117.triggermobs.ai;
 
 import com.nukateam.ntgl.common.data.WeaponData;
+import com.spock117.triggermobs.util.SpreadProfile;
 import net.minecraft.world.InteractionHand;
 import net.minecraft.world.entity.LivingEntity;
 import net.minecraft.world.entity.PathfinderMob;
@@ -10,11 +11,13 @@ import net.minecraft.world.item.ItemStack;
  * Interface for weapon-specific AI strategies.
  * Each weapon type can implement this interface to provide customized
  * movement and shooting behaviors.
+ * Implementations are stateless shared singletons; per-mob state is kept in a StrategyState.
  */
 public interface WeaponAIStrategy {
     /**
      * Handles movement behavior for the mob based on weapon characteristics.
      * @param mob The mob using the weapon
+     * @param state The mob's movement state
      * @param target The target entity
      * @param distance The distance to the target
      * @param distanceSqr The squared distance to the target
@@ -23,17 +26,33 @@ public interface WeaponAIStrategy {
      * @param hasLineOfSight Whether the mob has line of sight to target
      * @param seeTime How long the mob has seen the target
      */
-    void move(PathfinderMob mob, LivingEntity target, double distance, double distanceSqr, 
+    void move(PathfinderMob mob, StrategyState state, LivingEntity target, double distance, double distanceSqr, 
               boolean hasAmmo, boolean canReload, boolean hasLineOfSight, int seeTime);
     
     /**
      * Handles shooting behavior for the weapon.
+     * Implementations override either this or the ShotContext variant; each defaults to the other.
      * @param mob The mob using the weapon
      * @param target The target entity
      * @param hand The hand holding the weapon
      * @param weapon The weapon item stack
      */
-    void shoot(PathfinderMob mob, LivingEntity target, InteractionHand hand, ItemStack weapon);
+    default void shoot(PathfinderMob mob, LivingEntity target, InteractionHand hand, ItemStack weapon) {
+        shoot(mob, target, hand, weapon, null);
+    }
+    
+    /**
+     * Handles shooting behavior for the weapon, for a shot decided by the gun goal.
+     * The context should be passed on to MobShooter.fire.
+     * @param mob The mob using the weapon
+     * @param target The target entity
+     * @param hand The hand holding the weapon
+     * @param weapon The weapon item stack
+     * @param context The goal's spread multiplier and strategy for this shot, or null
+     */
+    default void shoot(PathfinderMob mob, LivingEntity target, InteractionHand hand, ItemStack weapon, ShotContext context) {
+        shoot(mob, target, hand, weapon);
+    }
     
     /**
      * Calculates the attack delay (cooldown) between shots based on weapon properties.
@@ -72,5 +91,29 @@ public interface WeaponAIStrategy {
      * @return true if the weapon should maintain distance, false if it should close in
      */
     boolean shouldMaintainDistance();
+    
+    /**
+     * Minimum number of ticks to keep strafing in the same direction after a shot.
+     * The actual cooldown is randomized between this value and twice this value.
+     * @return The base strafe cooldown in ticks
+     */
+    int getStrafeCooldownBase();
+    
+    /**
+     * Shot spread for this weapon type, passed to MobShooter.fire.
+     * @return The spread profile (default: the configured accuracy tiers as they are)
+     */
+    default SpreadProfile getSpreadProfile() {
+        return SpreadProfile.DEFAULT;
+    }
+    
+    /**
+     * How this weapon's spread changes with distance, target movement and aiming time,
+     * and when the mob should hold fire instead.
+     * @return The accuracy model (default: AccuracyModel.DEFAULT)
+     */
+    default AccuracyModel getAccuracyModel() {
+        return AccuracyModel.DEFAULT;
+    }
 }
 
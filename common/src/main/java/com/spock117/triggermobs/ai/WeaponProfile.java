@@ -0,0 +1,130 @@
+package com.spock117.triggermobs.ai;
+
+import com.nukateam.ntgl.common.data.WeaponData;
+import com.nukateam.ntgl.common.foundation.item.interfaces.IWeapon;
+import com.nukateam.ntgl.common.util.util.WeaponModifierHelper;
+import net.minecraft.world.InteractionHand;
+import net.minecraft.world.entity.PathfinderMob;
+import net.minecraft.world.item.ItemStack;
+
+/**
+ * Per-goal snapshot of what a mob holds: WeaponData, one-handed flag and resolved strategy for each hand.
+ * Rebuilt only when the hand contents change, detected by stack identity, stack emptiness and an
+ * equipment version counter, so the per-tick path allocates nothing while the mob keeps the same guns.
+ * Strategies are resolved again when the registry's rules change (datapack reload).
+ */
+public class WeaponProfile {
+    private final HandProfile mainHand = new HandProfile();
+    private final HandProfile offHand = new HandProfile();
+    private int version = Integer.MIN_VALUE;
+    private int strategyGeneration = WeaponStrategyRegistry.getGeneration();
+    
+    /**
+     * Cached data for the weapon in one hand.
+     */
+    private static final class HandProfile {
+        private ItemStack stack = ItemStack.EMPTY;
+        private boolean empty = true;
+        private boolean gun;
+        private boolean oneHanded;
+        private WeaponData weaponData;
+        private WeaponAIStrategy strategy;
+        
+        private boolean isCurrent(ItemStack current) {
+            return current == stack && current.isEmpty() == empty;
+        }
+        
+        private void update(ItemStack current, PathfinderMob mob) {
+            stack = current;
+            empty = current.isEmpty();
+            gun = !empty && current.getItem() instanceof IWeapon;
+            if (gun) {
+                weaponData = new WeaponData(current, mob);
+                oneHanded = WeaponModifierHelper.isOneHanded(weaponData);
+                strategy = WeaponStrategyFactory.getStrategy(current);
+            } else {
+                weaponData = null;
+                oneHanded = false;
+                strategy = null;
+            }
+        }
+        
+        private void updateStrategy() {
+            if (gun) {
+                strategy = WeaponStrategyFactory.getStrategy(stack);
+            }
+        }
+    }
+    
+    /**
+     * Brings the profile up to date with the mob's hands.
+     * @param mob The mob holding the weapons
+     * @param equipmentVersion The mob's current equipment version
+     * @return true if the profile was rebuilt
+     */
+    public boolean refresh(PathfinderMob mob, int equipmentVersion) {
+        ItemStack mainStack = mob.getMainHandItem();
+        ItemStack offStack = mob.getOffhandItem();
+        boolean versionChanged = equipmentVersion != version;
+        
+        boolean rebuilt = false;
+        if (versionChanged || !mainHand.isCurrent(mainStack)) {
+            mainHand.update(mainStack, mob);
+            rebuilt = true;
+        }
+        if (versionChanged || !offHand.isCurrent(offStack)) {
+            offHand.update(offStack, mob);
+            rebuilt = true;
+        }
+        version = equipmentVersion;
+        
+        // Datapack rules changed: same weapons, but they may map to other strategies now
+        int generation = WeaponStrategyRegistry.getGeneration();
+        if (generation != strategyGeneration) {
+            strategyGeneration = generation;
+            mainHand.updateStrategy();
+            offHand.updateStrategy();
+            rebuilt = true;
+        }
+        return rebuilt;
+    }
+    
+    /**
+     * Forgets everything, so the next refresh rebuilds both hands.
+     */
+    public void invalidate() {
+        mainHand.update(ItemStack.EMPTY, null);
+        offHand.update(ItemStack.EMPTY, null);
+        version = Integer.MIN_VALUE;
+    }
+    
+    private HandProfile get(InteractionHand hand) {
+        return hand == InteractionHand.MAIN_HAND ? mainHand : offHand;
+    }
+    
+    public boolean hasGun(InteractionHand hand) {
+        return get(hand).gun;
+    }
+    
+    public boolean isOneHanded(InteractionHand hand) {
+        return get(hand).oneHanded;
+    }
+    
+    public ItemStack getStack(InteractionHand hand) {
+        return get(hand).stack;
+    }
+    
+    /**
+     * @return The cached WeaponData, or null if the hand holds no gun
+     */
+    public WeaponData getWeaponData(InteractionHand hand) {
+        return get(hand).weaponData;
+    }
+    
+    /**
+     * @return The strategy resolved for the hand's weapon, or null if the hand holds no gun
+     */
+    public WeaponAIStrategy getStrategy(InteractionHand hand) {
+        return get(hand).strategy;
+    }
+}
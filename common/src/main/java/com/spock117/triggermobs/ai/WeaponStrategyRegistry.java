@@ -0,0 +1,189 @@
+package com.spock117.triggermobs.ai;
+
+import com.spock117.triggermobs.TriggerMobs;
+import com.spock117.triggermobs.ai.strategies.*;
+import com.spock117.triggermobs.util.WeaponTypeDetector;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.item.Item;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps weapons to AI strategies.
+ * Strategies are registered by id (built-ins under the triggermobs namespace, addons may add their own).
+ * Which strategy an item uses is decided by datapack rules (see WeaponStrategyReloadListener), checked in order:
+ * exact item, item tag, item namespace, then the built-in Create:Gunsmithing mapping, then the generic strategy.
+ * The result is resolved once per Item and kept in an identity map, so the hot path does no string matching.
+ */
+public class WeaponStrategyRegistry {
+    private static final Map<ResourceLocation, WeaponAIStrategy> STRATEGIES = new HashMap<>();
+    
+    // Datapack rules, replaced on every reload
+    private static Map<ResourceLocation, ResourceLocation> itemRules = Map.of();
+    private static List<TagRule> tagRules = List.of();
+    private static Map<String, ResourceLocation> namespaceRules = Map.of();
+    
+    // Only items that resolve to something other than the generic strategy are stored.
+    // The map is never mutated after publication, so reads need no locking.
+    private static volatile Map<Item, WeaponAIStrategy> resolvedCache = null;
+    // Bumped whenever the rules or the resolved cache change, so holders of a resolved strategy can re-resolve
+    private static volatile int generation = 0;
+    
+    /**
+     * A tag rule: every item in the tag uses the given strategy.
+     */
+    public record TagRule(TagKey<Item> tag, ResourceLocation strategyId) {}
+    
+    static {
+        registerStrategy(id("generic"), GenericWeaponStrategy.INSTANCE);
+        registerStrategy(id("flintlock"), FlintlockStrategy.INSTANCE);
+        registerStrategy(id("revolver"), RevolverStrategy.INSTANCE);
+        registerStrategy(id("shotgun"), ShotgunStrategy.INSTANCE);
+        registerStrategy(id("nailgun"), NailgunStrategy.INSTANCE);
+        registerStrategy(id("gatling"), GatlingStrategy.INSTANCE);
+        registerStrategy(id("blazegun"), BlazegunStrategy.INSTANCE);
+        registerStrategy(id("launcher"), LauncherStrategy.INSTANCE);
+        registerStrategy(id("hammer"), HammerStrategy.INSTANCE);
+        registerStrategy(id("grenade"), GrenadeStrategy.INSTANCE);
+    }
+    
+    private static ResourceLocation id(String path) {
+        return new ResourceLocation(TriggerMobs.MOD_ID, path);
+    }
+    
+    /**
+     * Registers a strategy under an id so datapack rules can refer to it.
+     * Strategies must be stateless; per-mob state belongs in StrategyState.
+     * Call during mod construction or setup, before the server starts.
+     * @param strategyId The id used in datapack rules
+     * @param strategy The shared strategy instance
+     */
+    public static synchronized void registerStrategy(ResourceLocation strategyId, WeaponAIStrategy strategy) {
+        if (STRATEGIES.put(strategyId, strategy) != null) {
+            TriggerMobs.LOGGER.warn("Weapon strategy {} registered twice, the last registration wins", strategyId);
+        }
+        resolvedCache = null;
+    }
+    
+    /**
+     * Gets a registered strategy by id.
+     * @return The strategy, or null if no strategy is registered under this id
+     */
+    public static WeaponAIStrategy getRegisteredStrategy(ResourceLocation strategyId) {
+        return STRATEGIES.get(strategyId);
+    }
+    
+    /**
+     * Replaces the datapack rules. The per-Item cache is dropped and rebuilt by the next call to rebuildCache.
+     */
+    public static void setRules(Map<ResourceLocation, ResourceLocation> items, List<TagRule> tags, Map<String, ResourceLocation> namespaces) {
+        itemRules = Map.copyOf(items);
+        tagRules = List.copyOf(tags);
+        namespaceRules = Map.copyOf(namespaces);
+        resolvedCache = null;
+        generation++;
+    }
+    
+    /**
+     * Resolves every registered item once. Call after tags are bound (they are needed by tag rules).
+     */
+    public static void rebuildCache() {
+        Map<Item, WeaponAIStrategy> cache = new IdentityHashMap<>();
+        for (Item item : BuiltInRegistries.ITEM) {
+            WeaponAIStrategy strategy = resolve(item);
+            if (strategy != GenericWeaponStrategy.INSTANCE) {
+                cache.put(item, strategy);
+            }
+        }
+        resolvedCache = cache;
+        generation++;
+        TriggerMobs.LOGGER.debug("Resolved weapon strategies for {} items ({} item, {} tag, {} namespace rules)",
+            cache.size(), itemRules.size(), tagRules.size(), namespaceRules.size());
+    }
+    
+    /**
+     * @return A counter that changes whenever strategy resolution may give different results (datapack reload)
+     */
+    public static int getGeneration() {
+        return generation;
+    }
+    
+    /**
+     * Gets the strategy for an item.
+     * @param item The weapon item
+     * @return The shared strategy, never null
+     */
+    public static WeaponAIStrategy getStrategy(Item item) {
+        Map<Item, WeaponAIStrategy> cache = resolvedCache;
+        if (cache == null) {
+            // Cache not built yet - resolve without caching
+            return resolve(item);
+        }
+        
+        WeaponAIStrategy strategy = cache.get(item);
+        return strategy != null ? strategy : GenericWeaponStrategy.INSTANCE;
+    }
+    
+    /**
+     * Resolves an item against the rules. Only used when building the cache.
+     */
+    private static WeaponAIStrategy resolve(Item item) {
+        ResourceLocation itemId = BuiltInRegistries.ITEM.getKey(item);
+        
+        WeaponAIStrategy strategy = lookup(itemRules.get(itemId));
+        if (strategy != null) {
+            return strategy;
+        }
+        
+        List<TagRule> tags = tagRules;
+        for (int i = 0; i < tags.size(); i++) {
+            TagRule rule = tags.get(i);
+            if (item.builtInRegistryHolder().is(rule.tag())) {
+                strategy = lookup(rule.strategyId());
+                if (strategy != null) {
+                    return strategy;
+                }
+            }
+        }
+        
+        strategy = lookup(namespaceRules.get(itemId.getNamespace()));
+        if (strategy != null) {
+            return strategy;
+        }
+        
+        // Built-in Create:Gunsmithing mapping
+        WeaponTypeDetector.Classification classification = WeaponTypeDetector.getClassification(item);
+        if (classification.cgs()) {
+            return forCGSType(classification.type());
+        }
+        
+        return GenericWeaponStrategy.INSTANCE;
+    }
+    
+    private static WeaponAIStrategy lookup(ResourceLocation strategyId) {
+        return strategyId != null ? STRATEGIES.get(strategyId) : null;
+    }
+    
+    /**
+     * Built-in strategy for a Create:Gunsmithing weapon type.
+     */
+    public static WeaponAIStrategy forCGSType(WeaponTypeDetector.CGSWeaponType weaponType) {
+        return switch (weaponType) {
+            case FLINTLOCK -> FlintlockStrategy.INSTANCE;
+            case REVOLVER -> RevolverStrategy.INSTANCE;
+            case SHOTGUN -> ShotgunStrategy.INSTANCE;
+            case NAILGUN -> NailgunStrategy.INSTANCE;
+            case GATLING -> GatlingStrategy.INSTANCE;
+            case BLAZEGUN -> BlazegunStrategy.INSTANCE;
+            case LAUNCHER -> LauncherStrategy.INSTANCE;
+            case HAMMER -> HammerStrategy.INSTANCE;
+            case GRENADE -> GrenadeStrategy.INSTANCE;
+            case UNKNOWN -> GenericWeaponStrategy.INSTANCE;
+        };
+    }
+}
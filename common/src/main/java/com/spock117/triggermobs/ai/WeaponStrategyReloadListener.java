@@ -0,0 +1,80 @@
+package com.spock117.triggermobs.ai;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.spock117.triggermobs.TriggerMobs;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.packs.resources.ResourceManager;
+import net.minecraft.server.packs.resources.SimpleJsonResourceReloadListener;
+import net.minecraft.tags.TagKey;
+import net.minecraft.util.GsonHelper;
+import net.minecraft.util.profiling.ProfilerFiller;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Loads weapon strategy rules from datapacks: data/&lt;namespace&gt;/triggermobs/weapon_strategies/*.json
+ * <pre>
+ * {
+ *   "rules": [
+ *     { "item": "somepack:minigun", "strategy": "triggermobs:gatling" },
+ *     { "tag": "somepack:shotguns", "strategy": "triggermobs:shotgun" },
+ *     { "namespace": "somepack", "strategy": "triggermobs:revolver" }
+ *   ]
+ * }
+ * </pre>
+ * Files are applied in id order; for the same item or namespace the last file wins.
+ * The per-Item cache is rebuilt once tags are bound (WeaponStrategyRegistry.rebuildCache).
+ */
+public class WeaponStrategyReloadListener extends SimpleJsonResourceReloadListener {
+    private static final Gson GSON = new GsonBuilder().create();
+    public static final String DIRECTORY = TriggerMobs.MOD_ID + "/weapon_strategies";
+    
+    public WeaponStrategyReloadListener() {
+        super(GSON, DIRECTORY);
+    }
+    
+    @Override
+    protected void apply(Map<ResourceLocation, JsonElement> files, ResourceManager resourceManager, ProfilerFiller profiler) {
+        Map<ResourceLocation, ResourceLocation> items = new HashMap<>();
+        List<WeaponStrategyRegistry.TagRule> tags = new ArrayList<>();
+        Map<String, ResourceLocation> namespaces = new HashMap<>();
+        
+        for (Map.Entry<ResourceLocation, JsonElement> file : new TreeMap<>(files).entrySet()) {
+            try {
+                JsonObject root = GsonHelper.convertToJsonObject(file.getValue(), "weapon strategy file");
+                for (JsonElement element : GsonHelper.getAsJsonArray(root, "rules")) {
+                    JsonObject rule = GsonHelper.convertToJsonObject(element, "rule");
+                    ResourceLocation strategyId = new ResourceLocation(GsonHelper.getAsString(rule, "strategy"));
+                    if (WeaponStrategyRegistry.getRegisteredStrategy(strategyId) == null) {
+                        TriggerMobs.LOGGER.warn("Unknown weapon strategy {} in {}, rule ignored", strategyId, file.getKey());
+                        continue;
+                    }
+                    
+                    if (rule.has("item")) {
+                        items.put(new ResourceLocation(GsonHelper.getAsString(rule, "item")), strategyId);
+                    } else if (rule.has("tag")) {
+                        ResourceLocation tagId = new ResourceLocation(GsonHelper.getAsString(rule, "tag"));
+                        tags.add(new WeaponStrategyRegistry.TagRule(TagKey.create(Registries.ITEM, tagId), strategyId));
+                    } else if (rule.has("namespace")) {
+                        namespaces.put(GsonHelper.getAsString(rule, "namespace"), strategyId);
+                    } else {
+                        TriggerMobs.LOGGER.warn("Weapon strategy rule in {} has no item, tag or namespace, rule ignored", file.getKey());
+                    }
+                }
+            } catch (RuntimeException e) {
+                TriggerMobs.LOGGER.error("Failed to load weapon strategy file {}: {}", file.getKey(), e.getMessage());
+            }
+        }
+        
+        WeaponStrategyRegistry.setRules(items, tags, namespaces);
+        TriggerMobs.LOGGER.info("Loaded {} item, {} tag and {} namespace weapon strategy rules", items.size(), tags.size(), namespaces.size());
+    }
+}
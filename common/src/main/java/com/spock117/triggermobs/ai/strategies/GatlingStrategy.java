@@ -1,12 +1,13 @@
 package com.spock117.triggermobs.ai.strategies;
 
 import com.nukateam.ntgl.common.data.WeaponData;
-import com.nukateam.ntgl.common.network.ServerPlayHandler;
-import com.nukateam.ntgl.common.network.message.C2SMessageShoot;
-import com.nukateam.ntgl.common.data.holders.WeaponMode;
 import com.nukateam.ntgl.common.util.util.WeaponModifierHelper;
+import com.spock117.triggermobs.ai.AccuracyModel;
+import com.spock117.triggermobs.ai.MobShooter;
+import com.spock117.triggermobs.ai.PathBroker;
+import com.spock117.triggermobs.ai.ShotContext;
+import com.spock117.triggermobs.ai.StrategyState;
 import com.spock117.triggermobs.ai.WeaponAIStrategy;
-import com.spock117.triggermobs.util.InaccuracyHelper;
 import net.minecraft.util.TimeUtil;
 import net.minecraft.util.valueproviders.UniformInt;
 import net.minecraft.world.InteractionHand;
@@ -24,27 +25,19 @@ public class GatlingStrategy implements WeaponAIStrategy {
     private static final float MIN_DISTANCE = 8.0F;
     private static final float MAX_DISTANCE = 18.0F;
     private static final float STRAFE_SPEED = 0.05F; // Slower movement while firing
+    private static final AccuracyModel ACCURACY = AccuracyModel.builder().exposure(1.0F, 0.95F, 20).movement(1.2F).holdFire(Float.MAX_VALUE).build(); // Suppression fire, never holds
     
-    private boolean strafeLeft;
-    private int strafeCooldown;
-    private int updatePathDelay;
+    public static final GatlingStrategy INSTANCE = new GatlingStrategy();
     
-    public GatlingStrategy() {
-        this.strafeLeft = false;
-        this.strafeCooldown = 0;
-        this.updatePathDelay = 0;
+    private GatlingStrategy() {
+        // Stateless: per-mob state lives in StrategyState
     }
     
     @Override
-    public void move(PathfinderMob mob, LivingEntity target, double distance, double distanceSqr,
+    public void move(PathfinderMob mob, StrategyState state, LivingEntity target, double distance, double distanceSqr,
                      boolean hasAmmo, boolean canReload, boolean hasLineOfSight, int seeTime) {
         // Update strafe direction
-        if (strafeCooldown > 0) {
-            strafeCooldown--;
-            if (strafeCooldown == 0) {
-                strafeLeft = mob.getRandom().nextBoolean();
-            }
-        }
+        state.tickStrafe(mob);
         
         if (hasAmmo && canReload) {
             float maxDistanceSqr = MAX_DISTANCE * MAX_DISTANCE;
@@ -56,49 +49,24 @@ public class GatlingStrategy implements WeaponAIStrategy {
                 
                 // Very slow strafe, mostly stationary
                 float forwardSpeed = 0.0F;
-                float sideSpeed = strafeLeft ? -STRAFE_SPEED : STRAFE_SPEED;
+                float sideSpeed = state.isStrafeLeft() ? -STRAFE_SPEED : STRAFE_SPEED;
                 
-                mob.setZza(forwardSpeed);
-                mob.setXxa(sideSpeed);
+                state.steer(mob, forwardSpeed, sideSpeed);
             } else {
                 // Out of range: move to position
-                --updatePathDelay;
-                if (updatePathDelay <= 0) {
-                    mob.getNavigation().moveTo(target, 0.5D); // Slower movement
-                    updatePathDelay = PATHFINDING_DELAY_RANGE.sample(mob.getRandom());
+                if (state.tickPathDelay()) {
+                    PathBroker.moveTo(mob, target, 0.5D); // Slower movement
+                    state.setUpdatePathDelay(PATHFINDING_DELAY_RANGE.sample(mob.getRandom()));
                 }
             }
         }
     }
     
     @Override
-    public void shoot(PathfinderMob mob, LivingEntity target, InteractionHand hand, ItemStack weapon) {
-        float yaw = mob.getViewYRot(1.0F);
-        float pitch = mob.getViewXRot(1.0F);
-        
-        float pitchOffset = InaccuracyHelper.getPitchOffset(mob.getRandom());
-        float yawOffset = InaccuracyHelper.getYawOffset(mob.getRandom());
-        
-        float finalYaw = yaw + yawOffset;
-        float finalPitch = pitch + pitchOffset;
-        
-        var msg = new C2SMessageShoot(
-                mob.getId(),
-                finalYaw,
-                finalPitch,
-                pitchOffset,
-                yawOffset,
-                hand,
-                WeaponMode.PRIMARY
-        );
-        
-        try {
-            ServerPlayHandler.handleShoot(msg, mob);
-        } catch (Exception e) {
-            // Silently handle errors
+    public void shoot(PathfinderMob mob, LivingEntity target, InteractionHand hand, ItemStack weapon, ShotContext context) {
+        if (MobShooter.fire(mob, hand, getSpreadProfile(), context)) {
+            mob.swing(hand);
         }
-        
-        mob.swing(hand);
     }
     
     @Override
@@ -138,8 +106,14 @@ public class GatlingStrategy implements WeaponAIStrategy {
         return true;
     }
     
-    public void updateStrafeCooldown(PathfinderMob mob) {
-        strafeCooldown = 30 + mob.getRandom().nextInt(30);
+    @Override
+    public int getStrafeCooldownBase() {
+        return 30;
+    }
+    
+    @Override
+    public AccuracyModel getAccuracyModel() {
+        return ACCURACY;
     }
 }
 
@@ -1,12 +1,12 @@
 package com.spock117.triggermobs.ai.strategies;
 
 import com.nukateam.ntgl.common.data.WeaponData;
-import com.nukateam.ntgl.common.network.ServerPlayHandler;
-import com.nukateam.ntgl.common.network.message.C2SMessageShoot;
-import com.nukateam.ntgl.common.data.holders.WeaponMode;
 import com.spock117.triggermobs.TriggerMobs;
+import com.spock117.triggermobs.ai.MobShooter;
+import com.spock117.triggermobs.ai.PathBroker;
+import com.spock117.triggermobs.ai.ShotContext;
+import com.spock117.triggermobs.ai.StrategyState;
 import com.spock117.triggermobs.ai.WeaponAIStrategy;
-import com.spock117.triggermobs.util.InaccuracyHelper;
 import net.minecraft.util.TimeUtil;
 import net.minecraft.util.valueproviders.UniformInt;
 import net.minecraft.world.InteractionHand;
@@ -25,26 +25,17 @@ public class GenericWeaponStrategy implements WeaponAIStrategy {
     private static final float DEFAULT_MIN_DISTANCE = 4.0F;
     private static final float DEFAULT_MAX_DISTANCE = 16.0F;
     
-    private boolean strafeLeft;
-    private int strafeCooldown;
-    private int updatePathDelay;
+    public static final GenericWeaponStrategy INSTANCE = new GenericWeaponStrategy();
     
-    public GenericWeaponStrategy() {
-        this.strafeLeft = false;
-        this.strafeCooldown = 0;
-        this.updatePathDelay = 0;
+    private GenericWeaponStrategy() {
+        // Stateless: per-mob state lives in StrategyState
     }
     
     @Override
-    public void move(PathfinderMob mob, LivingEntity target, double distance, double distanceSqr,
+    public void move(PathfinderMob mob, StrategyState state, LivingEntity target, double distance, double distanceSqr,
                      boolean hasAmmo, boolean canReload, boolean hasLineOfSight, int seeTime) {
         // Update strafe direction
-        if (strafeCooldown > 0) {
-            strafeCooldown--;
-            if (strafeCooldown == 0) {
-                strafeLeft = mob.getRandom().nextBoolean();
-            }
-        }
+        state.tickStrafe(mob);
         
         // Only control movement when we have gun with ammo and can reload
         if (hasAmmo && canReload) {
@@ -59,54 +50,26 @@ public class GenericWeaponStrategy implements WeaponAIStrategy {
                 float forwardSpeed = distance < DEFAULT_IDEAL_DISTANCE ? -DEFAULT_STRAFE_SPEED : DEFAULT_STRAFE_SPEED;
                 
                 // Sideways strafe
-                float sideSpeed = strafeLeft ? -DEFAULT_STRAFE_SPEED : DEFAULT_STRAFE_SPEED;
+                float sideSpeed = state.isStrafeLeft() ? -DEFAULT_STRAFE_SPEED : DEFAULT_STRAFE_SPEED;
                 
-                mob.setZza(forwardSpeed);
-                mob.setXxa(sideSpeed);
+                state.steer(mob, forwardSpeed, sideSpeed);
             } else {
                 // Out of range: move towards target using navigation
-                --updatePathDelay;
-                if (updatePathDelay <= 0) {
-                    mob.getNavigation().moveTo(target, 0.6D);
-                    updatePathDelay = PATHFINDING_DELAY_RANGE.sample(mob.getRandom());
+                if (state.tickPathDelay()) {
+                    PathBroker.moveTo(mob, target, 0.6D);
+                    state.setUpdatePathDelay(PATHFINDING_DELAY_RANGE.sample(mob.getRandom()));
                 }
             }
         }
     }
     
     @Override
-    public void shoot(PathfinderMob mob, LivingEntity target, InteractionHand hand, ItemStack weapon) {
-        // Calculate base rotation
-        float yaw = mob.getViewYRot(1.0F);
-        float pitch = mob.getViewXRot(1.0F);
-        
-        // Add inaccuracy
-        float pitchOffset = InaccuracyHelper.getPitchOffset(mob.getRandom());
-        float yawOffset = InaccuracyHelper.getYawOffset(mob.getRandom());
-        
-        // Apply inaccuracy to rotation
-        float finalYaw = yaw + yawOffset;
-        float finalPitch = pitch + pitchOffset;
-        
-        // Create shoot message
-        var msg = new C2SMessageShoot(
-                mob.getId(),
-                finalYaw,
-                finalPitch,
-                pitchOffset,
-                yawOffset,
-                hand,
-                WeaponMode.PRIMARY
-        );
-        
-        try {
-            ServerPlayHandler.handleShoot(msg, mob);
-        } catch (Exception e) {
-            // Silently handle errors
+    public void shoot(PathfinderMob mob, LivingEntity target, InteractionHand hand, ItemStack weapon, ShotContext context) {
+        // Fire along the current view direction, with inaccuracy
+        // Swing hand for animation, only if the shot went out
+        if (MobShooter.fire(mob, hand, getSpreadProfile(), context)) {
+            mob.swing(hand);
         }
-        
-        // Swing hand for animation
-        mob.swing(hand);
     }
     
     @Override
@@ -154,8 +117,9 @@ public class GenericWeaponStrategy implements WeaponAIStrategy {
         return true;
     }
     
-    public void updateStrafeCooldown(PathfinderMob mob) {
-        strafeCooldown = 20 + mob.getRandom().nextInt(20);
+    @Override
+    public int getStrafeCooldownBase() {
+        return 20;
     }
 }
 
@@ -2,12 +2,12 @@ package com.spock117.triggermobs.ai.strategies;
 
 import com.nukateam.ntgl.common.data.WeaponData;
 import com.nukateam.ntgl.common.foundation.item.interfaces.IThrowable;
-import com.nukateam.ntgl.common.network.ServerPlayHandler;
-import com.nukateam.ntgl.common.network.message.C2SMessageShoot;
-import com.nukateam.ntgl.common.data.holders.WeaponMode;
 import com.nukateam.ntgl.common.util.util.WeaponModifierHelper;
+import com.spock117.triggermobs.ai.MobShooter;
+import com.spock117.triggermobs.ai.PathBroker;
+import com.spock117.triggermobs.ai.ShotContext;
+import com.spock117.triggermobs.ai.StrategyState;
 import com.spock117.triggermobs.ai.WeaponAIStrategy;
-import com.spock117.triggermobs.util.InaccuracyHelper;
 import net.minecraft.util.TimeUtil;
 import net.minecraft.util.valueproviders.UniformInt;
 import net.minecraft.world.InteractionHand;
@@ -26,26 +26,17 @@ public class GrenadeStrategy implements WeaponAIStrategy {
     private static final float MAX_DISTANCE = 14.0F;
     private static final float STRAFE_SPEED = 0.1F;
     
-    private boolean strafeLeft;
-    private int strafeCooldown;
-    private int updatePathDelay;
+    public static final GrenadeStrategy INSTANCE = new GrenadeStrategy();
     
-    public GrenadeStrategy() {
-        this.strafeLeft = false;
-        this.strafeCooldown = 0;
-        this.updatePathDelay = 0;
+    private GrenadeStrategy() {
+        // Stateless: per-mob state lives in StrategyState
     }
     
     @Override
-    public void move(PathfinderMob mob, LivingEntity target, double distance, double distanceSqr,
+    public void move(PathfinderMob mob, StrategyState state, LivingEntity target, double distance, double distanceSqr,
                      boolean hasAmmo, boolean canReload, boolean hasLineOfSight, int seeTime) {
         // Update strafe direction
-        if (strafeCooldown > 0) {
-            strafeCooldown--;
-            if (strafeCooldown == 0) {
-                strafeLeft = mob.getRandom().nextBoolean();
-            }
-        }
+        state.tickStrafe(mob);
         
         if (hasAmmo && canReload) {
             float maxDistanceSqr = MAX_DISTANCE * MAX_DISTANCE;
@@ -64,54 +55,29 @@ public class GrenadeStrategy implements WeaponAIStrategy {
                     forwardSpeed = 0.0F;
                 }
                 
-                float sideSpeed = strafeLeft ? -STRAFE_SPEED : STRAFE_SPEED;
+                float sideSpeed = state.isStrafeLeft() ? -STRAFE_SPEED : STRAFE_SPEED;
                 
-                mob.setZza(forwardSpeed);
-                mob.setXxa(sideSpeed);
+                state.steer(mob, forwardSpeed, sideSpeed);
             } else {
-                --updatePathDelay;
-                if (updatePathDelay <= 0) {
-                    mob.getNavigation().moveTo(target, 0.6D);
-                    updatePathDelay = PATHFINDING_DELAY_RANGE.sample(mob.getRandom());
+                if (state.tickPathDelay()) {
+                    PathBroker.moveTo(mob, target, 0.6D);
+                    state.setUpdatePathDelay(PATHFINDING_DELAY_RANGE.sample(mob.getRandom()));
                 }
             }
         }
     }
     
     @Override
-    public void shoot(PathfinderMob mob, LivingEntity target, InteractionHand hand, ItemStack weapon) {
+    public void shoot(PathfinderMob mob, LivingEntity target, InteractionHand hand, ItemStack weapon, ShotContext context) {
         // Grenade is a throwable item
         // Check if it implements IThrowable and handle accordingly
         if (weapon.getItem() instanceof IThrowable) {
             // Use the throwable interface to throw the grenade
             // For now, we'll use the shoot mechanism as a fallback
-            float yaw = mob.getViewYRot(1.0F);
-            float pitch = mob.getViewXRot(1.0F);
-            
-            float pitchOffset = InaccuracyHelper.getPitchOffset(mob.getRandom());
-            float yawOffset = InaccuracyHelper.getYawOffset(mob.getRandom());
-            
-            float finalYaw = yaw + yawOffset;
-            float finalPitch = pitch + pitchOffset;
-            
-            var msg = new C2SMessageShoot(
-                    mob.getId(),
-                    finalYaw,
-                    finalPitch,
-                    pitchOffset,
-                    yawOffset,
-                    hand,
-                    WeaponMode.PRIMARY
-            );
-            
-            try {
-                ServerPlayHandler.handleShoot(msg, mob);
-            } catch (Exception e) {
-                // Silently handle errors
+            if (MobShooter.fire(mob, hand, getSpreadProfile(), context)) {
+                mob.swing(hand);
             }
         }
-        
-        mob.swing(hand);
     }
     
     @Override
@@ -147,8 +113,9 @@ public class GrenadeStrategy implements WeaponAIStrategy {
         return true; // Maintain distance for throwing
     }
     
-    public void updateStrafeCooldown(PathfinderMob mob) {
-        strafeCooldown = 20 + mob.getRandom().nextInt(20);
+    @Override
+    public int getStrafeCooldownBase() {
+        return 20;
     }
 }
 
@@ -1,12 +1,12 @@
 package com.spock117.triggermobs.ai.strategies;
 
 import com.nukateam.ntgl.common.data.WeaponData;
-import com.nukateam.ntgl.common.network.ServerPlayHandler;
-import com.nukateam.ntgl.common.network.message.C2SMessageShoot;
-import com.nukateam.ntgl.common.data.holders.WeaponMode;
 import com.nukateam.ntgl.common.util.util.WeaponModifierHelper;
+import com.spock117.triggermobs.ai.MobShooter;
+import com.spock117.triggermobs.ai.PathBroker;
+import com.spock117.triggermobs.ai.ShotContext;
+import com.spock117.triggermobs.ai.StrategyState;
 import com.spock117.triggermobs.ai.WeaponAIStrategy;
-import com.spock117.triggermobs.util.InaccuracyHelper;
 import net.minecraft.util.TimeUtil;
 import net.minecraft.util.valueproviders.UniformInt;
 import net.minecraft.world.InteractionHand;
@@ -25,26 +25,17 @@ public class HammerStrategy implements WeaponAIStrategy {
     private static final float MAX_DISTANCE = 5.0F;
     private static final float STRAFE_SPEED = 0.15F; // Faster for melee
     
-    private boolean strafeLeft;
-    private int strafeCooldown;
-    private int updatePathDelay;
+    public static final HammerStrategy INSTANCE = new HammerStrategy();
     
-    public HammerStrategy() {
-        this.strafeLeft = false;
-        this.strafeCooldown = 0;
-        this.updatePathDelay = 0;
+    private HammerStrategy() {
+        // Stateless: per-mob state lives in StrategyState
     }
     
     @Override
-    public void move(PathfinderMob mob, LivingEntity target, double distance, double distanceSqr,
+    public void move(PathfinderMob mob, StrategyState state, LivingEntity target, double distance, double distanceSqr,
                      boolean hasAmmo, boolean canReload, boolean hasLineOfSight, int seeTime) {
         // Update strafe direction
-        if (strafeCooldown > 0) {
-            strafeCooldown--;
-            if (strafeCooldown == 0) {
-                strafeLeft = mob.getRandom().nextBoolean();
-            }
-        }
+        state.tickStrafe(mob);
         
         if (hasAmmo && canReload) {
             float maxDistanceSqr = MAX_DISTANCE * MAX_DISTANCE;
@@ -61,51 +52,26 @@ public class HammerStrategy implements WeaponAIStrategy {
                     forwardSpeed = STRAFE_SPEED * 2.0F; // Close distance aggressively
                 }
                 
-                float sideSpeed = strafeLeft ? -STRAFE_SPEED : STRAFE_SPEED;
+                float sideSpeed = state.isStrafeLeft() ? -STRAFE_SPEED : STRAFE_SPEED;
                 
-                mob.setZza(forwardSpeed);
-                mob.setXxa(sideSpeed);
+                state.steer(mob, forwardSpeed, sideSpeed);
             } else {
                 // Out of range: close distance aggressively
-                --updatePathDelay;
-                if (updatePathDelay <= 0) {
-                    mob.getNavigation().moveTo(target, 0.8D); // Fast movement for melee
-                    updatePathDelay = PATHFINDING_DELAY_RANGE.sample(mob.getRandom());
+                if (state.tickPathDelay()) {
+                    PathBroker.moveTo(mob, target, 0.8D); // Fast movement for melee
+                    state.setUpdatePathDelay(PATHFINDING_DELAY_RANGE.sample(mob.getRandom()));
                 }
             }
         }
     }
     
     @Override
-    public void shoot(PathfinderMob mob, LivingEntity target, InteractionHand hand, ItemStack weapon) {
+    public void shoot(PathfinderMob mob, LivingEntity target, InteractionHand hand, ItemStack weapon, ShotContext context) {
         // Hammer is a melee weapon, but we'll still use the shoot mechanism for consistency
         // The actual melee attack is handled by the weapon's melee action
-        float yaw = mob.getViewYRot(1.0F);
-        float pitch = mob.getViewXRot(1.0F);
-        
-        float pitchOffset = InaccuracyHelper.getPitchOffset(mob.getRandom());
-        float yawOffset = InaccuracyHelper.getYawOffset(mob.getRandom());
-        
-        float finalYaw = yaw + yawOffset;
-        float finalPitch = pitch + pitchOffset;
-        
-        var msg = new C2SMessageShoot(
-                mob.getId(),
-                finalYaw,
-                finalPitch,
-                pitchOffset,
-                yawOffset,
-                hand,
-                WeaponMode.PRIMARY
-        );
-        
-        try {
-            ServerPlayHandler.handleShoot(msg, mob);
-        } catch (Exception e) {
-            // Silently handle errors
+        if (MobShooter.fire(mob, hand, getSpreadProfile(), context)) {
+            mob.swing(hand);
         }
-        
-        mob.swing(hand);
     }
     
     @Override
@@ -142,8 +108,9 @@ public class HammerStrategy implements WeaponAIStrategy {
         return false; // Hammer should close distance for melee
     }
     
-    public void updateStrafeCooldown(PathfinderMob mob) {
-        strafeCooldown = 15 + mob.getRandom().nextInt(15);
+    @Override
+    public int getStrafeCooldownBase() {
+        return 15;
     }
 }
 
@@ -9,16 +9,28 @@ import com.nukateam.ntgl.common.util.trackers.EntityReloadTracker;
 import com.nukateam.ntgl.common.util.util.WeaponModifierHelper;
 import com.nukateam.ntgl.common.util.util.WeaponStateHelper;
 import com.spock117.triggermobs.TriggerMobs;
+import com.spock117.triggermobs.ai.AiLevelOfDetail;
+import com.spock117.triggermobs.ai.CombatLevelContext;
+import com.spock117.triggermobs.ai.CombatThrottle;
+import com.spock117.triggermobs.ai.FireScheduler;
+import com.spock117.triggermobs.ai.ShotContext;
+import com.spock117.triggermobs.ai.SquadCoordinator;
+import com.spock117.triggermobs.ai.StrategyState;
 import com.spock117.triggermobs.ai.WeaponAIStrategy;
-import com.spock117.triggermobs.ai.WeaponStrategyFactory;
+import com.spock117.triggermobs.ai.WeaponProfile;
+import com.spock117.triggermobs.ai.strategies.GenericWeaponStrategy;
+import com.spock117.triggermobs.util.CombatMetrics;
+import com.spock117.triggermobs.util.CombatProfiler;
 import com.spock117.triggermobs.util.InaccuracyHelper;
 import net.minecraft.util.TimeUtil;
 import net.minecraft.util.valueproviders.UniformInt;
 import net.minecraft.world.InteractionHand;
 import net.minecraft.world.entity.HumanoidArm;
 import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.Mob;
 import net.minecraft.world.entity.PathfinderMob;
 import net.minecraft.world.entity.ai.goal.Goal;
+import net.minecraft.world.entity.ai.goal.WrappedGoal;
 import net.minecraft.world.entity.monster.Monster;
 import net.minecraft.world.item.ItemStack;
 
@@ -26,39 +38,110 @@ import java.util.EnumSet;
 
 public class MobGunAttackGoal extends Goal {
     public static final UniformInt PATHFINDING_DELAY_RANGE = TimeUtil.rangeOfSeconds(1, 2);
+    // Ticks to wait before reconsidering a shot the accuracy model advised against
+    private static final int HOLD_FIRE_TICKS = 5;
+    // Target speed is measured over at least this many ticks; older samples are discarded
+    private static final int TARGET_SPEED_WINDOW = 10;
+    private static final int TARGET_SPEED_MAX_AGE = 40;
     private final PathfinderMob mob;
     private final double speedModifier;
     private final float attackRadiusSqr;
     private int seeTime;
     private int attackDelay;
-    private int updatePathDelay;
-    private boolean strafeLeft;
-    private int strafeCooldown;
     // Base attack interval: configurable via config file (default: 200 ticks / 10 seconds)
     // For dual wielding, this is halved
     private boolean useMainHand = true; // For dual wielding: alternate between hands
     private boolean isDualWielding = false;
     
-    // Strategy pattern: current weapon AI strategy
+    // Strategy pattern: current weapon AI strategy (shared, stateless) and this mob's movement state
     private WeaponAIStrategy currentStrategy;
-    private ItemStack lastWeaponStack = ItemStack.EMPTY; // Track weapon changes
+    private final StrategyState strategyState = new StrategyState();
+    
+    // Cached per-hand weapon data, rebuilt only when the hands change
+    private final WeaponProfile weaponProfile = new WeaponProfile();
+    private int equipmentVersion = 0;
+    
+    // Whether either hand holds an NTGL weapon; kept current from equipment change events
+    // so unarmed mobs are rejected by canUse() without touching their items
+    private boolean armed;
+    
+    // AI level of detail: ticks until the next full decision, and the interval since the last one
+    private int lodCooldown = 0;
+    private int lodInterval = 1;
+    
+    // A reload this goal started is still running (for the reload completion metric)
+    private boolean reloadStarted = false;
+    
+    // Tick this mob's next shot is booked for in the level's FireScheduler (-1 if none)
+    private long bookedShotTick = -1;
+    
+    // This mob's orders from its squad, if it is in one
+    private final SquadCoordinator.Assignment squadAssignment = new SquadCoordinator.Assignment();
+    
+    // Spread multiplier and strategy handed to the strategy's shoot (refilled before every shot),
+    // and the hitscan shots fired since the last reload
+    private final ShotContext shotContext = new ShotContext();
+    
+    // Target position at an earlier decision, and the horizontal speed measured from it (blocks per tick)
+    private LivingEntity speedTarget;
+    private double speedSampleX;
+    private double speedSampleZ;
+    private long speedSampleTime = -1;
+    private double targetSpeed;
     
     public MobGunAttackGoal(PathfinderMob mob, double speedModifier, float attackRadius) {
         this.mob = mob;
         this.speedModifier = speedModifier;
         this.attackRadiusSqr = attackRadius * attackRadius;
         this.setFlags(EnumSet.of(Flag.MOVE, Flag.LOOK));
-        this.strafeLeft = mob.getRandom().nextBoolean();
         // Initialize attack delay to prevent immediate first shot
         // Use a small random delay to stagger initial attacks
         this.attackDelay = 10 + mob.getRandom().nextInt(20); // 0.5-1.5 seconds initial delay
         // Initialize with generic strategy
-        this.currentStrategy = new com.spock117.triggermobs.ai.strategies.GenericWeaponStrategy();
+        this.currentStrategy = GenericWeaponStrategy.INSTANCE;
+        this.armed = this.isHoldingGun();
+    }
+    
+    /**
+     * Checks whether a gun goal has already been attached to a mob.
+     * @param mob The mob
+     * @return true if the mob has a gun goal
+     */
+    public static boolean hasGoal(Mob mob) {
+        return findGoal(mob) != null;
+    }
+    
+    /**
+     * Finds a mob's gun goal in its goal selector. Only used on equipment changes, so a scan of the
+     * (small) goal set is cheap, and the goal is reachable only through its own mob.
+     * @param mob The mob
+     * @return The mob's gun goal, or null if it has none
+     */
+    private static MobGunAttackGoal findGoal(Mob mob) {
+        for (WrappedGoal wrapped : mob.goalSelector.getAvailableGoals()) {
+            if (wrapped.getGoal() instanceof MobGunAttackGoal goal) {
+                return goal;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Notifies the mob's gun goal (if any) that the contents of a hand changed,
+     * so its cached weapon profile is rebuilt on the next tick and its armed state is updated.
+     * @param mob The mob whose equipment changed
+     */
+    public static void onEquipmentChanged(Mob mob) {
+        MobGunAttackGoal goal = findGoal(mob);
+        if (goal != null) {
+            goal.equipmentVersion++;
+            goal.armed = goal.isHoldingGun();
+        }
     }
 
     @Override
     public boolean canUse() {
-        return this.isValidTarget() && this.isHoldingGun();
+        return this.armed && this.isValidTarget();
     }
 
     private boolean isHoldingGun() {
@@ -73,7 +156,7 @@ public class MobGunAttackGoal extends Goal {
 
     @Override
     public boolean canContinueToUse() {
-        return this.isValidTarget() && (this.canUse() || !this.mob.getNavigation().isDone()) && this.isHoldingGun();
+        return this.armed && this.isValidTarget();
     }
 
     private boolean isValidTarget() {
@@ -93,47 +176,76 @@ public class MobGunAttackGoal extends Goal {
             return;
         }
         
+        long gameTime = mob.level().getGameTime();
+        tickCombat();
+        // A shot booked for this tick that wasn't fired (out of range, holding fire, throttled, ...)
+        // gives its place back, so mobs ticking after this one can still use it
+        if (bookedShotTick == gameTime) {
+            releaseBooking();
+        }
+    }
+    
+    private void tickCombat() {
         var target = this.mob.getTarget();
         if (target == null || !target.isAlive()) {
             return;
         }
-
-        // Update strafe direction
-        if (strafeCooldown > 0) {
-            strafeCooldown--;
-            if (strafeCooldown == 0) {
-                strafeLeft = mob.getRandom().nextBoolean();
+        
+        if (CombatMetrics.isEnabled()) {
+            CombatLevelContext.get(mob.level()).noteArmedMob();
+        }
+        
+        // Between decisions (far from players): keep aiming and strafing as last decided, count down the attack
+        if (lodCooldown > 0) {
+            lodCooldown--;
+            strategyState.reapplySteering(mob);
+            this.mob.getLookControl().setLookAt(target, 60.0F, 60.0F);
+            if (attackDelay > 0) {
+                attackDelay--;
             }
+            return;
         }
+        int ticksSinceDecision = lodInterval;
+        lodInterval = Math.max(AiLevelOfDetail.getTier(mob).getDecisionInterval(),
+            CombatThrottle.getStage().getMinDecisionInterval());
+        lodCooldown = lodInterval - 1;
+        strategyState.clearSteering();
 
-        var hasLineOfSight = this.mob.getSensing().hasLineOfSight(target);
+        // Shared with nearby shooters aiming at the same target (see LineOfSightCache)
+        long phaseStart = CombatProfiler.start();
+        var hasLineOfSight = CombatLevelContext.get(mob.level()).getLineOfSightCache().hasLineOfSight(mob, target);
+        CombatProfiler.stop(CombatProfiler.Phase.LOS, null, phaseStart);
         var flag1 = this.seeTime > 0;
 
         if (hasLineOfSight != flag1) this.seeTime = 0;
 
+        // seeTime counts ticks, including the ones skipped since the last decision
         if (hasLineOfSight)
-            ++this.seeTime;
-        else --this.seeTime;
+            this.seeTime += ticksSinceDecision;
+        else this.seeTime -= ticksSinceDecision;
 
         double distance = this.mob.distanceTo(target);
         double distanceSqr = this.mob.distanceToSqr(target);
+        updateTargetSpeed(target, mob.level().getGameTime());
+        
+        // Refresh the cached weapon profile (no-op unless the hand contents changed)
+        phaseStart = CombatProfiler.start();
+        weaponProfile.refresh(mob, equipmentVersion);
         
         // Check if mob has gun with ammo (determines if we should control movement)
-        ItemStack mainHandWeapon = mob.getMainHandItem();
-        ItemStack offHandWeapon = mob.getOffhandItem();
-        boolean hasMainGun = mainHandWeapon.getItem() instanceof IWeapon;
-        boolean hasOffGun = offHandWeapon.getItem() instanceof IWeapon;
+        ItemStack mainHandWeapon = weaponProfile.getStack(InteractionHand.MAIN_HAND);
+        ItemStack offHandWeapon = weaponProfile.getStack(InteractionHand.OFF_HAND);
+        boolean hasMainGun = weaponProfile.hasGun(InteractionHand.MAIN_HAND);
+        boolean hasOffGun = weaponProfile.hasGun(InteractionHand.OFF_HAND);
         
-        // Determine which weapon to use and detect weapon changes
+        // Determine which weapon to use
         InteractionHand handToUse = null;
         ItemStack weaponToUse = null;
         
         if (hasMainGun && hasOffGun) {
             // Dual wielding: check if both weapons can be dual wielded
-            WeaponData mainData = new WeaponData(mainHandWeapon, mob);
-            WeaponData offData = new WeaponData(offHandWeapon, mob);
-            boolean mainCanDual = WeaponModifierHelper.isOneHanded(mainData);
-            boolean offCanDual = WeaponModifierHelper.isOneHanded(offData);
+            boolean mainCanDual = weaponProfile.isOneHanded(InteractionHand.MAIN_HAND);
+            boolean offCanDual = weaponProfile.isOneHanded(InteractionHand.OFF_HAND);
             
             if (mainCanDual && offCanDual) {
                 // Both can dual wield
@@ -160,28 +272,25 @@ public class MobGunAttackGoal extends Goal {
             handToUse = InteractionHand.OFF_HAND;
             weaponToUse = offHandWeapon;
         } else {
+            CombatProfiler.stop(CombatProfiler.Phase.SELECTION, null, phaseStart);
             return; // No weapon in either hand
         }
+        CombatProfiler.stop(CombatProfiler.Phase.SELECTION, null, phaseStart);
         
-        // Detect weapon changes and switch strategy if needed
-        if (weaponToUse != null && !weaponToUse.isEmpty()) {
-            // Check if weapon changed
-            boolean weaponChanged = !ItemStack.isSameItem(weaponToUse, lastWeaponStack);
-            
-            if (weaponChanged) {
-                // Always switch strategy when weapon changes (strategy will handle ammo checks)
-                currentStrategy = WeaponStrategyFactory.createStrategy(weaponToUse);
-                if (currentStrategy == null) {
-                    // Fallback to generic if factory returns null
-                    currentStrategy = new com.spock117.triggermobs.ai.strategies.GenericWeaponStrategy();
-                }
-                lastWeaponStack = weaponToUse.copy();
-            }
-        }
+        // Use the strategy resolved for this weapon (cached in the profile)
+        phaseStart = CombatProfiler.start();
+        WeaponAIStrategy strategy = weaponProfile.getStrategy(handToUse);
         
         // Ensure strategy is never null
-        if (currentStrategy == null) {
-            currentStrategy = new com.spock117.triggermobs.ai.strategies.GenericWeaponStrategy();
+        if (strategy == null) {
+            strategy = GenericWeaponStrategy.INSTANCE;
+        }
+        
+        // Switching strategy starts from fresh movement state, like a newly equipped weapon
+        if (strategy != currentStrategy) {
+            CombatMetrics.onStrategySwitch();
+            currentStrategy = strategy;
+            strategyState.reset();
         }
         
         // Update dual wielding capability based on strategy
@@ -191,7 +300,9 @@ public class MobGunAttackGoal extends Goal {
             handToUse = InteractionHand.MAIN_HAND;
             weaponToUse = mainHandWeapon;
         }
+        CombatProfiler.stop(CombatProfiler.Phase.STRATEGY_SWITCH, currentStrategy.getClass(), phaseStart);
         
+        phaseStart = CombatProfiler.start();
         boolean hasGunWithAmmo = false;
         if (hasMainGun && WeaponStateHelper.hasAmmo(mainHandWeapon)) {
             hasGunWithAmmo = true;
@@ -205,53 +316,126 @@ public class MobGunAttackGoal extends Goal {
         float strategyMaxDistance = currentStrategy.getMaxDistance();
         float strategyMaxDistanceSqr = strategyMaxDistance * strategyMaxDistance;
         boolean isInRange = distanceSqr <= strategyMaxDistanceSqr;
-                
-        // Delegate movement to strategy
-        currentStrategy.move(mob, target, distance, distanceSqr, hasGunWithAmmo, canReload, hasLineOfSight, seeTime);
+        
+        // Squad orders (updated by the level's SquadCoordinator a few times a second)
+        if (TriggerMobs.squadsEnabled) {
+            CombatLevelContext.get(mob.level()).getSquads()
+                .report(mob, target, squadAssignment, distanceSqr, isInRange, mob.level().getGameTime());
+        } else {
+            squadAssignment.clear();
+        }
+        if (squadAssignment.isInSquad()) {
+            strategyState.assignStrafe(squadAssignment.isStrafeLeft());
+        } else {
+            strategyState.clearAssignedStrafe();
+        }
+        
+        if (squadAssignment.isHolding() && !isInRange && hasLineOfSight) {
+            // Squad mates are moving up; wait where the target can still be seen
+            this.mob.getNavigation().stop();
+        } else {
+            // Delegate movement to strategy (steering it sets is recorded for skipped ticks)
+            currentStrategy.move(mob, strategyState, target, distance, distanceSqr, hasGunWithAmmo, canReload, hasLineOfSight, seeTime);
+        }
 
         // Look at target
         this.mob.getLookControl().setLookAt(target, 60.0F, 60.0F);
         
         // Don't sprint while aiming
         this.mob.setSprinting(false);
+        CombatProfiler.stop(CombatProfiler.Phase.MOVE, currentStrategy.getClass(), phaseStart);
 
         HumanoidArm arm = handToUse == InteractionHand.MAIN_HAND ? HumanoidArm.RIGHT : HumanoidArm.LEFT;
 
         // Check if entity is reloading (EntityReloadTracker only tracks one reload at a time)
+        phaseStart = CombatProfiler.start();
         boolean wasReloading = EntityReloadTracker.isReloading(mob);
         boolean isReloading = wasReloading;
         
-        // Check ammo for the weapon we're using
-        boolean hasAmmo = WeaponStateHelper.hasAmmo(weaponToUse);
-        int ammoCount = WeaponStateHelper.getAmmoCount(new WeaponData(weaponToUse, mob));
-        
         // Check if reload just completed
         if (wasReloading && !EntityReloadTracker.isReloading(mob)) {
             isReloading = false;
         }
+        if (reloadStarted && !isReloading) {
+            reloadStarted = false;
+            shotContext.resetHitscanRounds();
+            CombatMetrics.onReloadCompleted();
+        }
+        
+        // Check ammo for the weapon we're using. Hitscan shots don't take rounds out of the magazine,
+        // so they count as spent here: the mob reloads after as many shots as it would have otherwise.
+        boolean hasAmmo = WeaponStateHelper.hasAmmo(weaponToUse);
+        int hitscanRounds = shotContext.getHitscanRounds();
+        if (hasAmmo && hitscanRounds > 0
+                && hitscanRounds >= WeaponStateHelper.getAmmoCount(weaponProfile.getWeaponData(handToUse))) {
+            hasAmmo = false;
+        }
         
         if (!hasAmmo) {
             // No ammo, start reload if not already reloading
             if (!isReloading) {
                 EntityReloadTracker.addTracker(mob, arm);
                 isReloading = true;
+                reloadStarted = true;
+                CombatMetrics.onReloadStarted();
             }
-            // Don't allow firing while reloading - return early
-            return;
         }
+        CombatProfiler.stop(CombatProfiler.Phase.RELOAD, currentStrategy.getClass(), phaseStart);
         
-        // If reloading (any hand), don't allow firing - wait for reload to complete
-        if (isReloading) {
+        // Out of ammo or reloading (any hand): don't allow firing - wait for reload to complete
+        if (!hasAmmo || isReloading) {
+            releaseBooking();
             return;
         }
 
         // Attack logic
-        if (isInRange && this.seeTime >= 5 && attackDelay <= 0) {
+        // Squad members fire in turns: on their firing slots, or with the fire scheduler on, on the
+        // slot ticks their shots are booked for. Mobs deciding less often (AI LOD) are staggered by
+        // their decision interval and not scheduled.
+        long gameTime = mob.level().getGameTime();
+        FireScheduler fireScheduler = FireScheduler.isEnabled() && lodInterval == 1
+            ? CombatLevelContext.get(mob.level()).getFireScheduler() : null;
+        boolean fireSlot = lodInterval > 1 || fireScheduler != null || squadAssignment.isFireSlot(gameTime);
+        if (isInRange && this.seeTime >= 5 && attackDelay <= 0 && fireSlot) {
+            // Spread for this situation (distance, target movement, aiming time) from the weapon's accuracy model;
+            // if it would be a bad miss, wait for a better shot instead of wasting a projectile
+            float spreadScale = currentStrategy.getAccuracyModel().lookup(distance, targetSpeed, this.seeTime);
+            if (spreadScale < 0) {
+                if (TriggerMobs.holdFireEnabled) {
+                    attackDelay = HOLD_FIRE_TICKS;
+                    CombatMetrics.onHoldFire();
+                    return;
+                }
+                spreadScale = -spreadScale;
+            }
+            
+            // A ready shot not booked for this tick (first shot, first after a reload, or held up) is booked now:
+            // this tick if it is a firing slot with room, otherwise the nearest slot tick that has room
+            if (fireScheduler != null && gameTime != bookedShotTick) {
+                int wait = fireScheduler.bookReady(gameTime, squadAssignment.getFireStride(), squadAssignment.getFireOffset());
+                if (wait > 0) {
+                    bookedShotTick = gameTime + wait;
+                    // Counted down from the next tick on, like the delay set after a shot
+                    attackDelay = wait - 1;
+                    return;
+                }
+                bookedShotTick = gameTime;
+            }
+            
+            // Server under load: only a few shooters per area fire each second, the rest wait a moment
+            if (!CombatThrottle.tryAcquireShot(mob)) {
+                attackDelay = 10 + mob.getRandom().nextInt(20);
+                return;
+            }
+            
             // Delegate shooting to strategy
-            currentStrategy.shoot(mob, target, handToUse, weaponToUse);
+            phaseStart = CombatProfiler.start();
+            shotContext.set(spreadScale, currentStrategy.getClass());
+            currentStrategy.shoot(mob, target, handToUse, weaponToUse, shotContext);
+            CombatMetrics.onShot(currentStrategy.getClass());
             
-            // Calculate attack delay using strategy
-            WeaponData weaponData = new WeaponData(weaponToUse, mob);
+            // Calculate attack delay using strategy (cached WeaponData for the hand that fired)
+            WeaponData weaponData = weaponProfile.getWeaponData(handToUse);
             int calculatedDelay = currentStrategy.getAttackDelay(mob, weaponData);
             
             // For dual wielding, halve the delay
@@ -259,30 +443,24 @@ public class MobGunAttackGoal extends Goal {
                 calculatedDelay = calculatedDelay / 2;
             }
             
+            // Fire less often while the server is behind
+            calculatedDelay = (int) (calculatedDelay * CombatThrottle.getStage().getFireDelayMultiplier());
+            
             attackDelay = Math.max(1, calculatedDelay); // Ensure at least 1 tick minimum
             
-            // Update strafe cooldown (if strategy supports it)
-            if (currentStrategy instanceof com.spock117.triggermobs.ai.strategies.GenericWeaponStrategy genericStrategy) {
-                genericStrategy.updateStrafeCooldown(mob);
-            } else if (currentStrategy instanceof com.spock117.triggermobs.ai.strategies.FlintlockStrategy flintlockStrategy) {
-                flintlockStrategy.updateStrafeCooldown(mob);
-            } else if (currentStrategy instanceof com.spock117.triggermobs.ai.strategies.RevolverStrategy revolverStrategy) {
-                revolverStrategy.updateStrafeCooldown(mob);
-            } else if (currentStrategy instanceof com.spock117.triggermobs.ai.strategies.ShotgunStrategy shotgunStrategy) {
-                shotgunStrategy.updateStrafeCooldown(mob);
-            } else if (currentStrategy instanceof com.spock117.triggermobs.ai.strategies.NailgunStrategy nailgunStrategy) {
-                nailgunStrategy.updateStrafeCooldown(mob);
-            } else if (currentStrategy instanceof com.spock117.triggermobs.ai.strategies.GatlingStrategy gatlingStrategy) {
-                gatlingStrategy.updateStrafeCooldown(mob);
-            } else if (currentStrategy instanceof com.spock117.triggermobs.ai.strategies.BlazegunStrategy blazegunStrategy) {
-                blazegunStrategy.updateStrafeCooldown(mob);
-            } else if (currentStrategy instanceof com.spock117.triggermobs.ai.strategies.LauncherStrategy launcherStrategy) {
-                launcherStrategy.updateStrafeCooldown(mob);
-            } else if (currentStrategy instanceof com.spock117.triggermobs.ai.strategies.HammerStrategy hammerStrategy) {
-                hammerStrategy.updateStrafeCooldown(mob);
-            } else if (currentStrategy instanceof com.spock117.triggermobs.ai.strategies.GrenadeStrategy grenadeStrategy) {
-                grenadeStrategy.updateStrafeCooldown(mob);
+            // Book the next shot on a firing slot tick that isn't full yet (as close as possible to the requested delay)
+            if (fireScheduler != null && FireScheduler.canBook(attackDelay)) {
+                attackDelay = fireScheduler.book(gameTime, attackDelay,
+                    squadAssignment.getFireStride(), squadAssignment.getFireOffset());
+                bookedShotTick = gameTime + attackDelay;
+            } else {
+                // This tick's booking, if any, was used by the shot just fired
+                bookedShotTick = -1;
             }
+            CombatProfiler.stop(CombatProfiler.Phase.SHOOT, currentStrategy.getClass(), phaseStart);
+            
+            // Hold the current strafe direction for a while after shooting
+            strategyState.onShotFired(mob, currentStrategy);
             
             // Alternate hands for dual wielding
             if (isDualWielding) {
@@ -295,6 +473,47 @@ public class MobGunAttackGoal extends Goal {
         }
     }
 
+    /**
+     * Measures the target's horizontal speed from where it was at an earlier decision, at least
+     * TARGET_SPEED_WINDOW ticks ago. Comparing with the target's previous-tick position doesn't work
+     * for players: their position changes when movement packets are handled, and the previous
+     * position is reset when the player ticks, so the result depends on whether the player ticked
+     * before or after this mob. The window also evens out packets arriving in bursts.
+     */
+    private void updateTargetSpeed(LivingEntity target, long gameTime) {
+        long elapsed = gameTime - speedSampleTime;
+        if (target != speedTarget || speedSampleTime < 0 || elapsed > TARGET_SPEED_MAX_AGE) {
+            // New target, or the last sample is too old to compare with: start measuring again
+            speedTarget = target;
+            speedSampleX = target.getX();
+            speedSampleZ = target.getZ();
+            speedSampleTime = gameTime;
+            targetSpeed = 0;
+            return;
+        }
+        if (elapsed >= TARGET_SPEED_WINDOW) {
+            double dx = target.getX() - speedSampleX;
+            double dz = target.getZ() - speedSampleZ;
+            targetSpeed = Math.sqrt(dx * dx + dz * dz) / elapsed;
+            speedSampleX = target.getX();
+            speedSampleZ = target.getZ();
+            speedSampleTime = gameTime;
+        }
+    }
+    
+    /**
+     * Gives back the booked shot, if any, to the level's fire scheduler (the shot won't be fired).
+     */
+    private void releaseBooking() {
+        if (bookedShotTick >= 0) {
+            CombatLevelContext context = CombatLevelContext.getIfPresent(mob.level());
+            if (context != null) {
+                context.getFireScheduler().release(bookedShotTick);
+            }
+            bookedShotTick = -1;
+        }
+    }
+    
     // shoot() method removed - now delegated to strategy
     
     @Override
@@ -310,8 +529,20 @@ public class MobGunAttackGoal extends Goal {
         }
         this.seeTime = 0;
         this.attackDelay = 0;
-        this.strafeCooldown = 0;
-        this.lastWeaponStack = ItemStack.EMPTY;
+        this.strategyState.reset();
+        this.weaponProfile.invalidate();
+        this.lodCooldown = 0;
+        this.lodInterval = 1;
+        this.reloadStarted = false;
+        releaseBooking();
+        CombatLevelContext squadContext = CombatLevelContext.getIfPresent(mob.level());
+        if (squadContext != null) {
+            squadContext.getSquads().remove(mob);
+        }
+        this.squadAssignment.clear();
+        this.speedTarget = null;
+        this.speedSampleTime = -1;
+        this.targetSpeed = 0;
     }
 }
 
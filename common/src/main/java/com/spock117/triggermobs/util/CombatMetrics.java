@@ -0,0 +1,223 @@
+package com.spock117.triggermobs.util;
+
+import com.spock117.triggermobs.TriggerMobs;
+import com.spock117.triggermobs.ai.CombatLevelContext;
+import com.spock117.triggermobs.ai.CombatThrottle;
+import com.spock117.triggermobs.ai.FireScheduler;
+import com.spock117.triggermobs.ai.LineOfSightCache;
+import com.spock117.triggermobs.ai.MobShooter;
+import com.spock117.triggermobs.ai.PathBroker;
+import net.minecraft.world.level.Level;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Combat counters and histograms in Prometheus text format (see MetricsExporter).
+ * Recording uses striped LongAdders, so the server thread never contends with a scrape.
+ * Nothing is recorded unless metricsEnabled is set in config.
+ */
+public class CombatMetrics {
+    // Upper bounds of the phase time histogram buckets, in nanoseconds (+Inf is implicit)
+    private static final long[] PHASE_BUCKETS_NANOS = {1_000, 5_000, 10_000, 25_000, 50_000, 100_000, 250_000, 500_000, 1_000_000, 5_000_000};
+    
+    private static final LongAdder RELOADS_STARTED = new LongAdder();
+    private static final LongAdder RELOADS_COMPLETED = new LongAdder();
+    private static final LongAdder STRATEGY_SWITCHES = new LongAdder();
+    private static final LongAdder SHOTS_HELD = new LongAdder();
+    private static final LongAdder PICKUP_DISCARDS_NON_WEAPON = new LongAdder();
+    private static final LongAdder PICKUP_DISCARDS_TWO_HANDED = new LongAdder();
+    private static final Map<Class<?>, LongAdder> SHOTS_BY_STRATEGY = new ConcurrentHashMap<>();
+    // Per-dimension values, published by the server thread about once a second
+    private static final Map<String, LevelSnapshot> LEVELS = new ConcurrentHashMap<>();
+    private static final Histogram[] PHASE_TIMES = new Histogram[CombatProfiler.Phase.values().length];
+    
+    static {
+        for (int i = 0; i < PHASE_TIMES.length; i++) {
+            PHASE_TIMES[i] = new Histogram();
+        }
+    }
+    
+    private record LevelSnapshot(int armedMobs, long losHits, long losMisses, long pathSearches, long pathReuses, long flowFieldPaths,
+                                 long shotsShifted, long shotsDeferred) {
+    }
+    
+    private static final class Histogram {
+        private final LongAdder[] buckets = new LongAdder[PHASE_BUCKETS_NANOS.length + 1];
+        private final LongAdder sumNanos = new LongAdder();
+        
+        Histogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+        
+        void record(long nanos) {
+            int bucket = 0;
+            while (bucket < PHASE_BUCKETS_NANOS.length && nanos > PHASE_BUCKETS_NANOS[bucket]) {
+                bucket++;
+            }
+            buckets[bucket].increment();
+            sumNanos.add(nanos);
+        }
+    }
+    
+    public static boolean isEnabled() {
+        return TriggerMobs.metricsEnabled;
+    }
+    
+    public static void recordPhase(CombatProfiler.Phase phase, long nanos) {
+        PHASE_TIMES[phase.ordinal()].record(nanos);
+    }
+    
+    public static void onShot(Class<?> strategy) {
+        if (TriggerMobs.metricsEnabled) {
+            SHOTS_BY_STRATEGY.computeIfAbsent(strategy, key -> new LongAdder()).increment();
+        }
+    }
+    
+    public static void onReloadStarted() {
+        if (TriggerMobs.metricsEnabled) {
+            RELOADS_STARTED.increment();
+        }
+    }
+    
+    public static void onReloadCompleted() {
+        if (TriggerMobs.metricsEnabled) {
+            RELOADS_COMPLETED.increment();
+        }
+    }
+    
+    public static void onHoldFire() {
+        if (TriggerMobs.metricsEnabled) {
+            SHOTS_HELD.increment();
+        }
+    }
+    
+    public static void onStrategySwitch() {
+        if (TriggerMobs.metricsEnabled) {
+            STRATEGY_SWITCHES.increment();
+        }
+    }
+    
+    /**
+     * @param twoHanded true if a loose weapon was discarded because it can't be dual-wielded,
+     *                  false if a held non-weapon item was taken away
+     */
+    public static void onPickupDiscarded(boolean twoHanded) {
+        if (TriggerMobs.metricsEnabled) {
+            (twoHanded ? PICKUP_DISCARDS_TWO_HANDED : PICKUP_DISCARDS_NON_WEAPON).increment();
+        }
+    }
+    
+    /**
+     * Publishes a level's values for scraping. Called on the server thread, since the
+     * per-level caches are not safe to read from elsewhere.
+     * @param level The level
+     * @param context The level's combat context
+     * @param armedMobs Armed mobs whose gun AI ran in the last tick
+     */
+    public static void publishLevel(Level level, CombatLevelContext context, int armedMobs) {
+        LineOfSightCache cache = context.getLineOfSightCache();
+        PathBroker broker = context.getPathBroker();
+        FireScheduler scheduler = context.getFireScheduler();
+        LEVELS.put(level.dimension().location().toString(), new LevelSnapshot(armedMobs, cache.getHits(), cache.getMisses(),
+            broker.getSearches(), broker.getReuses(), broker.getFlowFields().getFieldPaths(),
+            scheduler.getShifted(), scheduler.getDeferred()));
+    }
+    
+    /**
+     * Forgets per-dimension values, e.g. when the server stops.
+     */
+    public static void clearLevels() {
+        LEVELS.clear();
+    }
+    
+    /**
+     * Renders all metrics in the Prometheus text exposition format (version 0.0.4).
+     * Safe to call from any thread; per-dimension values can be up to a second old.
+     */
+    public static String render() {
+        StringBuilder out = new StringBuilder(4096);
+        
+        header(out, "triggermobs_armed_mobs", "gauge", "Armed mobs in combat, per dimension");
+        for (Map.Entry<String, LevelSnapshot> entry : LEVELS.entrySet()) {
+            sample(out, "triggermobs_armed_mobs", "dimension", entry.getKey(), entry.getValue().armedMobs());
+        }
+        
+        header(out, "triggermobs_strategy_shots_total", "counter", "Shots fired by the gun AI, per weapon strategy");
+        for (Map.Entry<Class<?>, LongAdder> entry : SHOTS_BY_STRATEGY.entrySet()) {
+            sample(out, "triggermobs_strategy_shots_total", "strategy", entry.getKey().getSimpleName(), entry.getValue().sum());
+        }
+        
+        header(out, "triggermobs_shots_fired_total", "counter", "Shots handed to NTGL or resolved as hitscan");
+        sample(out, "triggermobs_shots_fired_total", null, null, MobShooter.getShotsFired());
+        header(out, "triggermobs_shots_hitscan_total", "counter", "Shots resolved as hitscan");
+        sample(out, "triggermobs_shots_hitscan_total", null, null, MobShooter.getShotsHitscan());
+        header(out, "triggermobs_shots_failed_total", "counter", "Shots where NTGL handleShoot threw");
+        sample(out, "triggermobs_shots_failed_total", null, null, MobShooter.getShotsFailed());
+        
+        header(out, "triggermobs_shots_held_total", "counter", "Shots not taken because the accuracy model expected a bad miss");
+        sample(out, "triggermobs_shots_held_total", null, null, SHOTS_HELD.sum());
+        
+        header(out, "triggermobs_reloads_started_total", "counter", "Reloads started by armed mobs");
+        sample(out, "triggermobs_reloads_started_total", null, null, RELOADS_STARTED.sum());
+        header(out, "triggermobs_reloads_completed_total", "counter", "Reloads armed mobs finished");
+        sample(out, "triggermobs_reloads_completed_total", null, null, RELOADS_COMPLETED.sum());
+        header(out, "triggermobs_strategy_switches_total", "counter", "Times a mob switched to a different weapon strategy");
+        sample(out, "triggermobs_strategy_switches_total", null, null, STRATEGY_SWITCHES.sum());
+        
+        header(out, "triggermobs_pickup_discards_total", "counter", "Items taken from mobs or discarded on pickup");
+        sample(out, "triggermobs_pickup_discards_total", "reason", "non_weapon", PICKUP_DISCARDS_NON_WEAPON.sum());
+        sample(out, "triggermobs_pickup_discards_total", "reason", "two_handed", PICKUP_DISCARDS_TWO_HANDED.sum());
+        
+        header(out, "triggermobs_phase_seconds", "histogram", "Time per phase of the gun AI, including work deferred to the end of the level tick");
+        for (CombatProfiler.Phase phase : CombatProfiler.Phase.values()) {
+            Histogram histogram = PHASE_TIMES[phase.ordinal()];
+            String label = "phase=\"" + phase.name().toLowerCase() + "\"";
+            long cumulative = 0;
+            for (int i = 0; i < histogram.buckets.length; i++) {
+                cumulative += histogram.buckets[i].sum();
+                String bound = i < PHASE_BUCKETS_NANOS.length ? Double.toString(PHASE_BUCKETS_NANOS[i] / 1.0e9) : "+Inf";
+                out.append("triggermobs_phase_seconds_bucket{").append(label).append(",le=\"").append(bound).append("\"} ")
+                    .append(cumulative).append('\n');
+            }
+            out.append("triggermobs_phase_seconds_sum{").append(label).append("} ").append(histogram.sumNanos.sum() / 1.0e9).append('\n');
+            out.append("triggermobs_phase_seconds_count{").append(label).append("} ").append(cumulative).append('\n');
+        }
+        
+        header(out, "triggermobs_throttle_stage", "gauge", "Combat throttle stage (0 = normal)");
+        sample(out, "triggermobs_throttle_stage", null, null, CombatThrottle.getStage().ordinal());
+        
+        header(out, "triggermobs_los_cache_hits_total", "counter", "Line-of-sight cache hits, per dimension");
+        LEVELS.forEach((dimension, level) -> sample(out, "triggermobs_los_cache_hits_total", "dimension", dimension, level.losHits()));
+        header(out, "triggermobs_los_cache_misses_total", "counter", "Line-of-sight cache misses, per dimension");
+        LEVELS.forEach((dimension, level) -> sample(out, "triggermobs_los_cache_misses_total", "dimension", dimension, level.losMisses()));
+        header(out, "triggermobs_path_searches_total", "counter", "Path searches run by the path broker, per dimension");
+        LEVELS.forEach((dimension, level) -> sample(out, "triggermobs_path_searches_total", "dimension", dimension, level.pathSearches()));
+        header(out, "triggermobs_path_reuses_total", "counter", "Path requests served from a recent path, per dimension");
+        LEVELS.forEach((dimension, level) -> sample(out, "triggermobs_path_reuses_total", "dimension", dimension, level.pathReuses()));
+        header(out, "triggermobs_path_flow_field_total", "counter", "Path requests served from a flow field, per dimension");
+        LEVELS.forEach((dimension, level) -> sample(out, "triggermobs_path_flow_field_total", "dimension", dimension, level.flowFieldPaths()));
+        header(out, "triggermobs_shots_shifted_total", "counter", "Shots the fire scheduler moved off their requested tick, per dimension");
+        LEVELS.forEach((dimension, level) -> sample(out, "triggermobs_shots_shifted_total", "dimension", dimension, level.shotsShifted()));
+        header(out, "triggermobs_shots_deferred_total", "counter", "Unbooked shots booked for a later tick because theirs was full, per dimension");
+        LEVELS.forEach((dimension, level) -> sample(out, "triggermobs_shots_deferred_total", "dimension", dimension, level.shotsDeferred()));
+        
+        return out.toString();
+    }
+    
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+    
+    private static void sample(StringBuilder out, String name, String labelName, String labelValue, long value) {
+        out.append(name);
+        if (labelName != null) {
+            out.append('{').append(labelName).append("=\"").append(labelValue).append("\"}");
+        }
+        out.append(' ').append(value).append('\n');
+    }
+}
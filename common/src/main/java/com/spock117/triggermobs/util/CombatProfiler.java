@@ -0,0 +1,244 @@
+package com.spock117.triggermobs.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runtime-toggleable timing and allocation counters for the phases of MobGunAttackGoal.tick and
+ * the combat work deferred to the end of the level tick (queued shots, path searches, flow fields),
+ * broken down per weapon strategy where there is one. Off by default; while off (and metrics are off too),
+ * start() and stop() only read two flags. Phase times also feed the CombatMetrics histograms.
+ * Phases run one after another on the server thread, so a single start sample is kept.
+ */
+public class CombatProfiler {
+    public enum Phase {
+        LOS,
+        SELECTION,
+        STRATEGY_SWITCH,
+        MOVE,
+        RELOAD,
+        // Deciding and aiming a shot; with batchMobShots off this includes firing it
+        SHOOT,
+        // One queued shot fired at the end of the level tick (batchMobShots)
+        FIRE,
+        // Queued chase path searches and path reuse, once per level tick
+        PATHFIND,
+        // Flow field upkeep and building, once per level tick
+        FLOW_FIELD
+    }
+    
+    private static final Phase[] PHASES = Phase.values();
+    
+    /**
+     * Accumulated counters for one phase (optionally of one strategy).
+     */
+    public static final class Stats {
+        private long calls;
+        private long totalNanos;
+        private long maxNanos;
+        private long allocatedBytes;
+        
+        void add(long nanos, long bytes) {
+            calls++;
+            totalNanos += nanos;
+            maxNanos = Math.max(maxNanos, nanos);
+            allocatedBytes += bytes;
+        }
+        
+        public long getCalls() {
+            return calls;
+        }
+        
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+        
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+        
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+        
+        public long getAverageNanos() {
+            return calls > 0 ? totalNanos / calls : 0;
+        }
+    }
+    
+    private static volatile boolean enabled = false;
+    private static long enabledAt = 0;
+    private static long enabledNanos = 0;
+    
+    private static final Stats[] PHASE_STATS = newPhaseStats();
+    private static final Map<Class<?>, Stats[]> STRATEGY_STATS = new IdentityHashMap<>();
+    
+    // Per-thread allocation counter (HotSpot); null if the JVM doesn't support it
+    private static final com.sun.management.ThreadMXBean THREAD_MX = initThreadMXBean();
+    // -1 when the current phase started without allocation tracking
+    private static long startAllocatedBytes = -1;
+    
+    private static com.sun.management.ThreadMXBean initThreadMXBean() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+                return bean;
+            }
+        } catch (Throwable ignored) {
+            // Not HotSpot; timings still work
+        }
+        return null;
+    }
+    
+    private static Stats[] newPhaseStats() {
+        Stats[] stats = new Stats[PHASES.length];
+        for (int i = 0; i < stats.length; i++) {
+            stats[i] = new Stats();
+        }
+        return stats;
+    }
+    
+    public static boolean isEnabled() {
+        return enabled;
+    }
+    
+    /**
+     * Turns recording on or off. Counters are kept until reset().
+     */
+    public static void setEnabled(boolean enable) {
+        if (enable == enabled) {
+            return;
+        }
+        if (enable) {
+            if (THREAD_MX != null && !THREAD_MX.isThreadAllocatedMemoryEnabled()) {
+                THREAD_MX.setThreadAllocatedMemoryEnabled(true);
+            }
+            enabledAt = System.nanoTime();
+        } else {
+            enabledNanos += System.nanoTime() - enabledAt;
+        }
+        enabled = enable;
+    }
+    
+    /**
+     * @return Nanoseconds spent recording since the last reset
+     */
+    public static long getRecordingNanos() {
+        return enabledNanos + (enabled ? System.nanoTime() - enabledAt : 0);
+    }
+    
+    public static boolean isAllocationTracked() {
+        return THREAD_MX != null;
+    }
+    
+    /**
+     * Marks the start of a phase.
+     * @return The start time to pass to stop(), or 0 when neither profiling nor metrics are enabled
+     */
+    public static long start() {
+        if (!enabled) {
+            if (!CombatMetrics.isEnabled()) {
+                return 0;
+            }
+            startAllocatedBytes = -1;
+        } else if (THREAD_MX != null) {
+            startAllocatedBytes = THREAD_MX.getCurrentThreadAllocatedBytes();
+        }
+        return System.nanoTime();
+    }
+    
+    /**
+     * Records a phase started with start().
+     * @param phase The phase
+     * @param strategy The strategy class the phase ran for, or null
+     * @param startNanos The value returned by start()
+     */
+    public static void stop(Phase phase, Class<?> strategy, long startNanos) {
+        if (startNanos == 0) {
+            return;
+        }
+        long nanos = System.nanoTime() - startNanos;
+        if (CombatMetrics.isEnabled()) {
+            CombatMetrics.recordPhase(phase, nanos);
+        }
+        if (!enabled) {
+            return;
+        }
+        long bytes = THREAD_MX != null && startAllocatedBytes >= 0 ? THREAD_MX.getCurrentThreadAllocatedBytes() - startAllocatedBytes : 0;
+        
+        PHASE_STATS[phase.ordinal()].add(nanos, bytes);
+        if (strategy != null) {
+            STRATEGY_STATS.computeIfAbsent(strategy, key -> newPhaseStats())[phase.ordinal()].add(nanos, bytes);
+        }
+    }
+    
+    public static void reset() {
+        for (Stats stats : PHASE_STATS) {
+            stats.calls = 0;
+            stats.totalNanos = 0;
+            stats.maxNanos = 0;
+            stats.allocatedBytes = 0;
+        }
+        STRATEGY_STATS.clear();
+        enabledNanos = 0;
+        enabledAt = System.nanoTime();
+    }
+    
+    public static Stats getPhaseStats(Phase phase) {
+        return PHASE_STATS[phase.ordinal()];
+    }
+    
+    /**
+     * @return Per-strategy totals over all phases, by strategy class simple name
+     */
+    public static List<Map.Entry<String, Stats>> getStrategyTotals() {
+        List<Map.Entry<String, Stats>> totals = new ArrayList<>();
+        for (Map.Entry<Class<?>, Stats[]> entry : STRATEGY_STATS.entrySet()) {
+            Stats total = new Stats();
+            for (Stats stats : entry.getValue()) {
+                total.calls += stats.calls;
+                total.totalNanos += stats.totalNanos;
+                total.maxNanos = Math.max(total.maxNanos, stats.maxNanos);
+                total.allocatedBytes += stats.allocatedBytes;
+            }
+            totals.add(Map.entry(entry.getKey().getSimpleName(), total));
+        }
+        totals.sort((a, b) -> Long.compare(b.getValue().totalNanos, a.getValue().totalNanos));
+        return totals;
+    }
+    
+    /**
+     * Writes every phase, and every phase per strategy, as CSV.
+     * @param file The file to write
+     * @throws IOException If the file can't be written
+     */
+    public static void writeCsv(Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("strategy,phase,calls,total_ns,avg_ns,max_ns,allocated_bytes,avg_allocated_bytes\n");
+            for (Phase phase : PHASES) {
+                writeRow(writer, "ALL", phase, PHASE_STATS[phase.ordinal()]);
+            }
+            for (Map.Entry<Class<?>, Stats[]> entry : STRATEGY_STATS.entrySet()) {
+                for (Phase phase : PHASES) {
+                    Stats stats = entry.getValue()[phase.ordinal()];
+                    if (stats.calls > 0) {
+                        writeRow(writer, entry.getKey().getSimpleName(), phase, stats);
+                    }
+                }
+            }
+        }
+    }
+    
+    private static void writeRow(Writer writer, String strategy, Phase phase, Stats stats) throws IOException {
+        writer.write(strategy + "," + phase + "," + stats.calls + "," + stats.totalNanos + "," + stats.getAverageNanos() + ","
+            + stats.maxNanos + "," + stats.allocatedBytes + "," + (stats.calls > 0 ? stats.allocatedBytes / stats.calls : 0) + "\n");
+    }
+}
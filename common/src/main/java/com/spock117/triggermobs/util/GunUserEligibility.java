@@ -0,0 +1,102 @@
+package com.spock117.triggermobs.util;
+
+import com.spock117.triggermobs.TriggerMobs;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.entity.monster.AbstractIllager;
+import net.minecraft.world.entity.monster.AbstractSkeleton;
+import net.minecraft.world.entity.monster.Monster;
+import net.minecraft.world.entity.monster.Zombie;
+import net.minecraft.world.entity.monster.piglin.AbstractPiglin;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Decides which entity types can use guns, so the gun goal is only attached where it can ever run.
+ * A type is eligible if it is a Monster and, in order of precedence:
+ * - it is not in the configured exclude list
+ * - it is in the configured include list or the triggermobs:gun_users entity type tag, or
+ * - its first spawned instance has humanoid arms (zombies, skeletons, illagers, piglins and their subclasses)
+ * Results are kept per EntityType in an identity table and rebuilt when tags or config reload.
+ */
+public class GunUserEligibility {
+    public static final TagKey<EntityType<?>> GUN_USERS = TagKey.create(Registries.ENTITY_TYPE,
+        new ResourceLocation(TriggerMobs.MOD_ID, "gun_users"));
+    
+    // Decided types; undecided types are classified from their first instance. Server thread only.
+    private static final Map<EntityType<?>, Boolean> TABLE = new IdentityHashMap<>();
+    private static volatile boolean built = false;
+    
+    /**
+     * Drops the table; it is rebuilt on the next lookup. Call when tags or config reload.
+     */
+    public static void invalidate() {
+        built = false;
+    }
+    
+    private static void rebuild() {
+        TABLE.clear();
+        
+        for (String name : TriggerMobs.gunUserExcludes) {
+            EntityType<?> type = resolve(name);
+            if (type != null) {
+                TABLE.put(type, Boolean.FALSE);
+            }
+        }
+        for (String name : TriggerMobs.gunUserIncludes) {
+            EntityType<?> type = resolve(name);
+            if (type != null) {
+                TABLE.putIfAbsent(type, Boolean.TRUE);
+            }
+        }
+        for (EntityType<?> type : BuiltInRegistries.ENTITY_TYPE) {
+            if (type.is(GUN_USERS)) {
+                TABLE.putIfAbsent(type, Boolean.TRUE);
+            }
+        }
+        
+        built = true;
+    }
+    
+    private static EntityType<?> resolve(String name) {
+        ResourceLocation key = ResourceLocation.tryParse(name);
+        if (key == null || !BuiltInRegistries.ENTITY_TYPE.containsKey(key)) {
+            TriggerMobs.LOGGER.warn("Unknown entity type '{}' in gun user config, ignored", name);
+            return null;
+        }
+        return BuiltInRegistries.ENTITY_TYPE.get(key);
+    }
+    
+    /**
+     * Checks whether a mob's type can use guns.
+     * @param mob The mob
+     * @return true if the gun goal should be attached to this mob
+     */
+    public static boolean isEligible(Mob mob) {
+        if (!(mob instanceof Monster)) {
+            return false;
+        }
+        if (!built) {
+            rebuild();
+        }
+        
+        Boolean eligible = TABLE.get(mob.getType());
+        if (eligible == null) {
+            eligible = hasHumanoidArms(mob);
+            TABLE.put(mob.getType(), eligible);
+        }
+        return eligible;
+    }
+    
+    private static boolean hasHumanoidArms(Mob mob) {
+        return mob instanceof Zombie
+            || mob instanceof AbstractSkeleton
+            || mob instanceof AbstractIllager
+            || mob instanceof AbstractPiglin;
+    }
+}
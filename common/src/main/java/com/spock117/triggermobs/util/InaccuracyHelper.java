@@ -13,71 +13,61 @@ public class InaccuracyHelper {
     private static final float TIER2_MAX_INACCURACY = 15.0f;
     
     /**
-     * Gets the probability of Tier 2 (less accurate) shots.
-     * Calculated as (1.0 - tier1Probability) from config.
-     * @return Probability of Tier 2 shots (0.0 to 1.0)
+     * Gets the probability of Tier 1 (accurate) shots from config.
+     * @return Probability of Tier 1 shots (0.0 to 1.0)
      */
-    private static float getTier2Probability() {
+    private static float getTier1Probability() {
         // Ensure tier1Probability is valid (defensive check)
         float tier1Prob = TriggerMobs.tier1Probability;
         if (tier1Prob < 0.0f || tier1Prob > 1.0f) {
             tier1Prob = 0.125f; // Default: 12.5%
         }
-        return 1.0f - tier1Prob;
+        return tier1Prob;
     }
     
     /**
-     * Calculates a random pitch offset for inaccuracy with two tiers
+     * Builds the inverse CDF of the spread magnitude for one axis: entry i is the magnitude at
+     * quantile (i + 0.5) / size of the two-tier distribution (Tier 1 with tier1Probability, otherwise
+     * Tier 2, uniform within each tier). Picking a uniformly random entry reproduces the tier roll.
+     * @param size Number of entries
+     * @param scale Multiplier applied to every magnitude
+     * @return The table, ascending
+     */
+    static float[] buildMagnitudeTable(int size, float scale) {
+        float tier1Prob = getTier1Probability();
+        float[] table = new float[size];
+        for (int i = 0; i < size; i++) {
+            float quantile = (i + 0.5f) / size;
+            float magnitude;
+            if (quantile < tier1Prob) {
+                // Tier 1: Accurate (±3-5 degrees)
+                magnitude = TIER1_MIN_INACCURACY + quantile / tier1Prob * (TIER1_MAX_INACCURACY - TIER1_MIN_INACCURACY);
+            } else {
+                // Tier 2: Less accurate (±12-15 degrees)
+                magnitude = TIER2_MIN_INACCURACY + (quantile - tier1Prob) / (1.0f - tier1Prob) * (TIER2_MAX_INACCURACY - TIER2_MIN_INACCURACY);
+            }
+            table[i] = magnitude * scale;
+        }
+        return table;
+    }
+    
+    /**
+     * Calculates a random pitch offset for inaccuracy with two tiers.
+     * Shots need both offsets; SpreadProfile.sample draws them together.
      * @param random The random source
      * @return Pitch offset in degrees
      */
     public static float getPitchOffset(RandomSource random) {
-        // Choose tier based on configurable probability
-        float tier2Prob = getTier2Probability();
-        boolean useTier2 = random.nextFloat() < tier2Prob;
-        
-        float minInaccuracy, maxInaccuracy;
-        if (useTier2) {
-            // Tier 2: Less accurate (±12-15 degrees)
-            minInaccuracy = TIER2_MIN_INACCURACY;
-            maxInaccuracy = TIER2_MAX_INACCURACY;
-        } else {
-            // Tier 1: Accurate (±3-5 degrees)
-            minInaccuracy = TIER1_MIN_INACCURACY;
-            maxInaccuracy = TIER1_MAX_INACCURACY;
-        }
-        
-        float range = maxInaccuracy - minInaccuracy;
-        float base = minInaccuracy + random.nextFloat() * range;
-        // Randomly positive or negative
-        return (random.nextBoolean() ? 1 : -1) * base;
+        return SpreadProfile.DEFAULT.sampleOne(random);
     }
     
     /**
-     * Calculates a random yaw offset for inaccuracy with two tiers
+     * Calculates a random yaw offset for inaccuracy with two tiers.
+     * Shots need both offsets; SpreadProfile.sample draws them together.
      * @param random The random source
      * @return Yaw offset in degrees
      */
     public static float getYawOffset(RandomSource random) {
-        // Choose tier based on configurable probability
-        float tier2Prob = getTier2Probability();
-        boolean useTier2 = random.nextFloat() < tier2Prob;
-        
-        float minInaccuracy, maxInaccuracy;
-        if (useTier2) {
-            // Tier 2: Less accurate (±12-15 degrees)
-            minInaccuracy = TIER2_MIN_INACCURACY;
-            maxInaccuracy = TIER2_MAX_INACCURACY;
-        } else {
-            // Tier 1: Accurate (±3-5 degrees)
-            minInaccuracy = TIER1_MIN_INACCURACY;
-            maxInaccuracy = TIER1_MAX_INACCURACY;
-        }
-        
-        float range = maxInaccuracy - minInaccuracy;
-        float base = minInaccuracy + random.nextFloat() * range;
-        // Randomly positive or negative
-        return (random.nextBoolean() ? 1 : -1) * base;
+        return SpreadProfile.DEFAULT.sampleOne(random);
     }
 }
-
@@ -0,0 +1,106 @@
+package com.spock117.triggermobs.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Round-robin, time-sliced scheduler for periodic per-entry work.
+ * Each tick handles roughly size / intervalTicks entries so every entry is visited
+ * once per interval. Work is cut off when the per-tick time budget runs out and the
+ * unfinished part of the slice is carried over into the next tick.
+ * @param <T> The entry type (compared by identity)
+ */
+public class MaintenanceScheduler<T> {
+    private final List<T> entries = new ArrayList<>();
+    private final Set<T> members = Collections.newSetFromMap(new IdentityHashMap<>());
+    private int cursor = 0;
+    private int carry = 0;
+    
+    /**
+     * Adds an entry to the rotation. Adding an entry twice has no effect.
+     */
+    public void add(T entry) {
+        if (members.add(entry)) {
+            entries.add(entry);
+        }
+    }
+    
+    /**
+     * Number of entries currently in the rotation.
+     */
+    public int size() {
+        return entries.size();
+    }
+    
+    /**
+     * Amount of work carried over from previous ticks.
+     */
+    public int getCarry() {
+        return carry;
+    }
+    
+    /**
+     * Runs this tick's slice.
+     * @param intervalTicks Every entry should be visited once per this many ticks
+     * @param budgetNanos Maximum time to spend this tick, in nanoseconds
+     * @param keep Entries failing this check are dropped from the rotation
+     * @param task The work to run for each visited entry
+     * @return The number of entries processed
+     */
+    public int tick(int intervalTicks, long budgetNanos, Predicate<T> keep, Consumer<T> task) {
+        int size = entries.size();
+        if (size == 0) {
+            carry = 0;
+            return 0;
+        }
+        
+        int interval = Math.max(1, intervalTicks);
+        int quota = Math.min(size, (size + interval - 1) / interval + carry);
+        long deadline = System.nanoTime() + budgetNanos;
+        int processed = 0;
+        
+        while (processed < quota && !entries.isEmpty()) {
+            if (cursor >= entries.size()) {
+                cursor = 0;
+            }
+            
+            T entry = entries.get(cursor);
+            if (!keep.test(entry)) {
+                // Swap-remove; the moved entry is visited at this cursor position next
+                T last = entries.remove(entries.size() - 1);
+                if (cursor < entries.size()) {
+                    entries.set(cursor, last);
+                }
+                members.remove(entry);
+                quota = Math.min(quota, entries.size());
+                continue;
+            }
+            
+            task.accept(entry);
+            processed++;
+            cursor++;
+            
+            if (System.nanoTime() >= deadline) {
+                break;
+            }
+        }
+        
+        carry = Math.min(entries.size(), quota - processed);
+        return processed;
+    }
+    
+    /**
+     * Removes every entry from the rotation.
+     */
+    public void clear() {
+        entries.clear();
+        members.clear();
+        cursor = 0;
+        carry = 0;
+    }
+}
@@ -0,0 +1,114 @@
+package com.spock117.triggermobs.util;
+
+import com.spock117.triggermobs.TriggerMobs;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes CombatMetrics off the server thread: on a loopback-only HTTP endpoint (/metrics)
+ * for a Prometheus scrape, and/or by rewriting a text file periodically (for node_exporter's
+ * textfile collector). Started with the server and stopped with it.
+ */
+public class MetricsExporter {
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final int FILE_INTERVAL_SECONDS = 15;
+    
+    private static HttpServer httpServer;
+    // HttpServer.stop doesn't shut down the executor it was given
+    private static ExecutorService httpExecutor;
+    private static ScheduledExecutorService fileWriter;
+    
+    /**
+     * Starts the exporters configured in metricsPort and metricsFile, if metrics are enabled.
+     * @param serverDirectory Directory a relative metricsFile is resolved against
+     */
+    public static synchronized void start(Path serverDirectory) {
+        stop();
+        if (!TriggerMobs.metricsEnabled) {
+            return;
+        }
+        
+        if (TriggerMobs.metricsPort > 0) {
+            try {
+                // Loopback only: the endpoint has no authentication
+                HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), TriggerMobs.metricsPort), 0);
+                server.createContext("/metrics", MetricsExporter::handleScrape);
+                ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> daemon(runnable, "TriggerMobs metrics HTTP"));
+                server.setExecutor(executor);
+                server.start();
+                httpServer = server;
+                httpExecutor = executor;
+                TriggerMobs.LOGGER.info("TriggerMobs metrics available at http://127.0.0.1:{}/metrics", TriggerMobs.metricsPort);
+            } catch (IOException e) {
+                TriggerMobs.LOGGER.error("Could not start TriggerMobs metrics endpoint on port {}: {}", TriggerMobs.metricsPort, e.getMessage());
+            }
+        }
+        
+        if (!TriggerMobs.metricsFile.isBlank()) {
+            Path file = serverDirectory.resolve(TriggerMobs.metricsFile);
+            fileWriter = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "TriggerMobs metrics file"));
+            fileWriter.scheduleWithFixedDelay(() -> writeFile(file), FILE_INTERVAL_SECONDS, FILE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+            TriggerMobs.LOGGER.info("TriggerMobs metrics written to {} every {} seconds", file, FILE_INTERVAL_SECONDS);
+        }
+    }
+    
+    public static synchronized void stop() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            httpServer = null;
+        }
+        if (httpExecutor != null) {
+            httpExecutor.shutdownNow();
+            httpExecutor = null;
+        }
+        if (fileWriter != null) {
+            fileWriter.shutdownNow();
+            fileWriter = null;
+        }
+    }
+    
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+    
+    private static void handleScrape(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = CombatMetrics.render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+    
+    private static void writeFile(Path file) {
+        try {
+            // Write then move, so readers never see a half-written file
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(temp, CombatMetrics.render(), StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            TriggerMobs.LOGGER.warn("Could not write TriggerMobs metrics to {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -1,11 +1,15 @@
 package com.spock117.triggermobs.util;
 
 import com.nukateam.ntgl.common.foundation.item.interfaces.IWeapon;
+import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.entity.EntityType;
 import net.minecraft.world.entity.Mob;
 import net.minecraft.world.item.*;
 import net.minecraft.world.item.enchantment.Enchantments;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Set;
 
 public class MobItemPickupHelper {
@@ -29,12 +33,25 @@ public class MobItemPickupHelper {
         "minecraft:zombified_piglin"
     );
     
+    // Resolved once from MOBS_WITH_CUSTOM_PICKUP so per-tick checks are an identity lookup
+    private static Set<EntityType<?>> customPickupTypes = null;
+    
     /**
      * Checks if the mob should have custom item pickup behavior.
      */
     public static boolean shouldHandlePickup(Mob mob) {
-        ResourceLocation entityTypeKey = mob.getType().builtInRegistryHolder().key().location();
-        return entityTypeKey != null && MOBS_WITH_CUSTOM_PICKUP.contains(entityTypeKey.toString());
+        Set<EntityType<?>> types = customPickupTypes;
+        if (types == null) {
+            types = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (String name : MOBS_WITH_CUSTOM_PICKUP) {
+                ResourceLocation key = ResourceLocation.tryParse(name);
+                if (key != null && BuiltInRegistries.ENTITY_TYPE.containsKey(key)) {
+                    types.add(BuiltInRegistries.ENTITY_TYPE.get(key));
+                }
+            }
+            customPickupTypes = types;
+        }
+        return types.contains(mob.getType());
     }
     
     /**
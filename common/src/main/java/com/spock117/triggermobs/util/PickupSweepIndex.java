@@ -0,0 +1,101 @@
+package com.spock117.triggermobs.util;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.SectionPos;
+import net.minecraft.util.Mth;
+import net.minecraft.world.entity.item.ItemEntity;
+import net.minecraft.world.phys.AABB;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-tick spatial index used by the item pickup sweep.
+ * Buckets the ItemEntities of interest by chunk section, so each mob only looks at
+ * the sections its pickup box overlaps instead of running its own AABB query.
+ * Buckets are reused between ticks to avoid churn.
+ */
+public class PickupSweepIndex {
+    private final Long2ObjectOpenHashMap<List<ItemEntity>> itemsBySection = new Long2ObjectOpenHashMap<>();
+    private final List<List<ItemEntity>> bucketPool = new ArrayList<>();
+    
+    /**
+     * Rebuilds the index from the given ItemEntities, using their current positions.
+     * @param items The items to index
+     */
+    public void rebuild(List<ItemEntity> items) {
+        clear();
+        
+        for (int i = 0; i < items.size(); i++) {
+            ItemEntity itemEntity = items.get(i);
+            if (itemEntity.isRemoved() || !itemEntity.isAlive() || itemEntity.getItem().isEmpty()) {
+                continue;
+            }
+            bucketFor(SectionPos.asLong(itemEntity.blockPosition())).add(itemEntity);
+        }
+    }
+    
+    /**
+     * Whether the last rebuild indexed any ItemEntities at all.
+     */
+    public boolean hasItems() {
+        return !itemsBySection.isEmpty();
+    }
+    
+    /**
+     * Collects indexed ItemEntities whose bounding box intersects the given box.
+     * Only the chunk sections overlapped by the box are visited.
+     * @param box The search box
+     * @param out The list to fill (cleared first)
+     */
+    public void collectItemsNear(AABB box, List<ItemEntity> out) {
+        out.clear();
+        if (itemsBySection.isEmpty()) {
+            return;
+        }
+        
+        int minX = SectionPos.blockToSectionCoord(Mth.floor(box.minX));
+        int minY = SectionPos.blockToSectionCoord(Mth.floor(box.minY));
+        int minZ = SectionPos.blockToSectionCoord(Mth.floor(box.minZ));
+        int maxX = SectionPos.blockToSectionCoord(Mth.floor(box.maxX));
+        int maxY = SectionPos.blockToSectionCoord(Mth.floor(box.maxY));
+        int maxZ = SectionPos.blockToSectionCoord(Mth.floor(box.maxZ));
+        
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    List<ItemEntity> bucket = itemsBySection.get(SectionPos.asLong(x, y, z));
+                    if (bucket == null) {
+                        continue;
+                    }
+                    for (int i = 0; i < bucket.size(); i++) {
+                        ItemEntity itemEntity = bucket.get(i);
+                        if (box.intersects(itemEntity.getBoundingBox())) {
+                            out.add(itemEntity);
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Releases all buckets back to the pool.
+     */
+    public void clear() {
+        for (List<ItemEntity> bucket : itemsBySection.values()) {
+            bucket.clear();
+            bucketPool.add(bucket);
+        }
+        itemsBySection.clear();
+    }
+    
+    private List<ItemEntity> bucketFor(long sectionKey) {
+        List<ItemEntity> bucket = itemsBySection.get(sectionKey);
+        if (bucket == null) {
+            bucket = bucketPool.isEmpty() ? new ArrayList<>() : bucketPool.remove(bucketPool.size() - 1);
+            itemsBySection.put(sectionKey, bucket);
+        }
+        return bucket;
+    }
+}
@@ -0,0 +1,105 @@
+package com.spock117.triggermobs.util;
+
+import net.minecraft.util.RandomSource;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Precomputed shot spread. Each profile holds an inverse-CDF table of spread magnitudes built from
+ * the accuracy tiers (see InaccuracyHelper), scaled for the weapon, so a shot's pitch and yaw offsets
+ * come from a single nextLong() and two table reads instead of tier rolls and config checks.
+ * Tables are rebuilt only when the config changes (rebuildAll).
+ */
+public class SpreadProfile {
+    // Table entries per axis = 2^TABLE_BITS; each axis uses TABLE_BITS index bits plus one sign bit
+    private static final int TABLE_BITS = 12;
+    private static final int TABLE_SIZE = 1 << TABLE_BITS;
+    
+    private static final List<SpreadProfile> PROFILES = new CopyOnWriteArrayList<>();
+    
+    /**
+     * Spread with the configured tiers as they are.
+     */
+    public static final SpreadProfile DEFAULT = create(1.0F);
+    
+    private final float scale;
+    private volatile float[] table;
+    
+    /**
+     * A shot's offsets. Callers keep one and reuse it, so sampling doesn't allocate.
+     */
+    public static final class Sample {
+        private float pitchOffset;
+        private float yawOffset;
+        
+        public float getPitchOffset() {
+            return pitchOffset;
+        }
+        
+        public float getYawOffset() {
+            return yawOffset;
+        }
+    }
+    
+    private SpreadProfile(float scale) {
+        this.scale = scale;
+        this.table = InaccuracyHelper.buildMagnitudeTable(TABLE_SIZE, scale);
+    }
+    
+    /**
+     * Creates a profile whose spread is the configured tiers scaled by a factor, e.g. 1.3 for a wide
+     * shotgun cone or 0.8 for tight revolver shots. Create profiles once (e.g. in a static field),
+     * they are kept for the lifetime of the game.
+     * @param scale Spread multiplier
+     * @return The profile
+     */
+    public static SpreadProfile create(float scale) {
+        SpreadProfile profile = new SpreadProfile(scale);
+        PROFILES.add(profile);
+        return profile;
+    }
+    
+    /**
+     * Rebuilds every profile's table from the current config. Call after the accuracy config changes.
+     */
+    public static void rebuildAll() {
+        for (SpreadProfile profile : PROFILES) {
+            profile.table = InaccuracyHelper.buildMagnitudeTable(TABLE_SIZE, profile.scale);
+        }
+    }
+    
+    public float getScale() {
+        return scale;
+    }
+    
+    /**
+     * Draws both offsets of a shot from one random long.
+     * @param random The random source
+     * @param out Receives the pitch and yaw offsets in degrees
+     */
+    public void sample(RandomSource random, Sample out) {
+        float[] magnitudes = table;
+        long bits = random.nextLong();
+        // Pitch from the high 32 bits, yaw from the low 32 (each is one output of the underlying generator);
+        // the top bits are the index and the bit below them the sign
+        int high = (int) (bits >>> 32);
+        int low = (int) bits;
+        out.pitchOffset = signed(magnitudes[high >>> (32 - TABLE_BITS)], high);
+        out.yawOffset = signed(magnitudes[low >>> (32 - TABLE_BITS)], low);
+    }
+    
+    /**
+     * Draws a single offset (one axis) from one random int.
+     * @param random The random source
+     * @return Offset in degrees
+     */
+    public float sampleOne(RandomSource random) {
+        int bits = random.nextInt();
+        return signed(table[bits >>> (32 - TABLE_BITS)], bits);
+    }
+    
+    private static float signed(float magnitude, int bits) {
+        return (bits & (1 << (31 - TABLE_BITS))) != 0 ? -magnitude : magnitude;
+    }
+}
@@ -1,11 +1,17 @@
 package com.spock117.triggermobs.util;
 
+import net.minecraft.core.registries.BuiltInRegistries;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.item.Item;
 import net.minecraft.world.item.ItemStack;
 
+import java.util.IdentityHashMap;
+import java.util.Map;
+
 /**
  * Utility class to detect weapon types, specifically Create:Gunsmithing weapons.
+ * Classifications are computed once per Item and kept in an identity map, so
+ * lookups on the combat hot path are a single map read with no allocation.
  */
 public class WeaponTypeDetector {
     private static final String CGS_MOD_ID = "cgs";
@@ -27,36 +33,84 @@ public class WeaponTypeDetector {
     }
     
     /**
-     * Gets the registry name of an item using reflection to avoid Forge dependency in common module.
-     * @param item The item to get the registry name for
-     * @return The ResourceLocation registry name, or null if not available
+     * Cached classification of a single Item.
+     * @param cgs Whether the item is registered under the Create:Gunsmithing namespace
+     * @param type The Create:Gunsmithing weapon type, or UNKNOWN
      */
-    private static ResourceLocation getRegistryName(Item item) {
+    public record Classification(boolean cgs, CGSWeaponType type) {
+        public static final Classification NONE = new Classification(false, CGSWeaponType.UNKNOWN);
+    }
+    
+    // Registry path -> weapon type, only consulted while (re)building the cache
+    private static final Map<String, CGSWeaponType> CGS_PATHS = Map.of(
+        "flintlock", CGSWeaponType.FLINTLOCK,
+        "revolver", CGSWeaponType.REVOLVER,
+        "shotgun", CGSWeaponType.SHOTGUN,
+        "nailgun", CGSWeaponType.NAILGUN,
+        "gatling", CGSWeaponType.GATLING,
+        "blazegun", CGSWeaponType.BLAZEGUN,
+        "launcher", CGSWeaponType.LAUNCHER,
+        "hammer", CGSWeaponType.HAMMER,
+        "frag_grenade", CGSWeaponType.GRENADE
+    );
+    
+    // Only CGS items are stored; a miss means NONE once the cache is built.
+    // The map is never mutated after publication, so reads need no locking.
+    private static volatile Map<Item, Classification> classificationCache = null;
+    
+    /**
+     * Rebuilds the per-Item classification cache from the item registry.
+     * Call once registries are frozen and again whenever registries or datapacks reload.
+     */
+    public static void rebuildCache() {
+        Map<Item, Classification> cache = new IdentityHashMap<>();
+        for (Item item : BuiltInRegistries.ITEM) {
+            Classification classification = classify(item);
+            if (classification.cgs()) {
+                cache.put(item, classification);
+            }
+        }
+        classificationCache = cache;
+    }
+    
+    /**
+     * Drops the cache; lookups fall back to direct classification until it is rebuilt.
+     */
+    public static void invalidateCache() {
+        classificationCache = null;
+    }
+    
+    /**
+     * Gets the cached classification for an item.
+     * @param item The item to classify
+     * @return The classification, never null
+     */
+    public static Classification getClassification(Item item) {
         if (item == null) {
-            return null;
+            return Classification.NONE;
         }
         
-        // Try to use ForgeRegistries via reflection (available at runtime on Forge)
-        try {
-            Class<?> forgeRegistries = Class.forName("net.minecraftforge.registries.ForgeRegistries");
-            Object itemsRegistry = forgeRegistries.getField("ITEMS").get(null);
-            java.lang.reflect.Method getKey = itemsRegistry.getClass().getMethod("getKey", Object.class);
-            return (ResourceLocation) getKey.invoke(itemsRegistry, item);
-        } catch (Exception e) {
-            // ForgeRegistries not available, try alternative approach
-            // Check item description ID which contains namespace
-            String descriptionId = item.getDescriptionId();
-            if (descriptionId != null && descriptionId.contains(".")) {
-                // Description ID format: "item.cgs.weapon_name" or similar
-                String[] parts = descriptionId.split("\\.");
-                if (parts.length >= 2 && parts[1].equals(CGS_MOD_ID)) {
-                    // Extract the item name from description ID
-                    String itemName = parts.length > 2 ? parts[parts.length - 1] : "";
-                    return ResourceLocation.tryParse(CGS_MOD_ID + ":" + itemName);
-                }
-            }
-            return null;
+        Map<Item, Classification> cache = classificationCache;
+        if (cache == null) {
+            // Cache not built yet (e.g. before common setup) - classify without caching
+            return classify(item);
+        }
+        
+        Classification classification = cache.get(item);
+        return classification != null ? classification : Classification.NONE;
+    }
+    
+    /**
+     * Classifies an item from its registry name. Only used when building the cache.
+     */
+    private static Classification classify(Item item) {
+        ResourceLocation registryName = BuiltInRegistries.ITEM.getKey(item);
+        if (registryName == null || !registryName.getNamespace().equals(CGS_MOD_ID)) {
+            return Classification.NONE;
         }
+        
+        CGSWeaponType type = CGS_PATHS.getOrDefault(registryName.getPath(), CGSWeaponType.UNKNOWN);
+        return new Classification(true, type);
     }
     
     /**
@@ -65,16 +119,7 @@ public class WeaponTypeDetector {
      * @return true if the item is from Create:Gunsmithing
      */
     public static boolean isCGSWeapon(Item item) {
-        if (item == null) {
-            return false;
-        }
-        
-        ResourceLocation registryName = getRegistryName(item);
-        if (registryName == null) {
-            return false;
-        }
-        
-        return registryName.getNamespace().equals(CGS_MOD_ID);
+        return getClassification(item).cgs();
     }
     
     /**
@@ -96,39 +141,7 @@ public class WeaponTypeDetector {
      * @return The weapon type, or UNKNOWN if not a CGS weapon or not recognized
      */
     public static CGSWeaponType getCGSWeaponType(Item item) {
-        if (!isCGSWeapon(item)) {
-            return CGSWeaponType.UNKNOWN;
-        }
-        
-        ResourceLocation registryName = getRegistryName(item);
-        if (registryName == null) {
-            return CGSWeaponType.UNKNOWN;
-        }
-        
-        String path = registryName.getPath();
-        
-        // Check for specific weapon types by registry name
-        if (path.equals("flintlock")) {
-            return CGSWeaponType.FLINTLOCK;
-        } else if (path.equals("revolver")) {
-            return CGSWeaponType.REVOLVER;
-        } else if (path.equals("shotgun")) {
-            return CGSWeaponType.SHOTGUN;
-        } else if (path.equals("nailgun")) {
-            return CGSWeaponType.NAILGUN;
-        } else if (path.equals("gatling")) {
-            return CGSWeaponType.GATLING;
-        } else if (path.equals("blazegun")) {
-            return CGSWeaponType.BLAZEGUN;
-        } else if (path.equals("launcher")) {
-            return CGSWeaponType.LAUNCHER;
-        } else if (path.equals("hammer")) {
-            return CGSWeaponType.HAMMER;
-        } else if (path.equals("frag_grenade")) {
-            return CGSWeaponType.GRENADE;
-        }
-        
-        return CGSWeaponType.UNKNOWN;
+        return getClassification(item).type();
     }
     
     /**
@@ -144,4 +157,3 @@ public class WeaponTypeDetector {
         return getCGSWeaponType(stack.getItem());
     }
 }
-
@@ -1,12 +1,21 @@
 package com.spock117.triggermobs;
 
 import com.spock117.triggermobs.config.TriggerMobsConfig;
+import com.spock117.triggermobs.events.TriggerMobsEvents;
+import com.spock117.triggermobs.util.GunUserEligibility;
+import com.spock117.triggermobs.util.SpreadProfile;
+import com.spock117.triggermobs.util.WeaponTypeDetector;
+import net.minecraft.server.MinecraftServer;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.ModLoadingContext;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.config.ModConfig;
 import net.minecraftforge.fml.event.config.ModConfigEvent;
+import net.minecraftforge.fml.event.lifecycle.FMLCommonSetupEvent;
 import net.minecraftforge.fml.javafmlmod.FMLJavaModLoadingContext;
+import net.minecraftforge.server.ServerLifecycleHooks;
+
+import java.util.List;
 
 @Mod(TriggerMobs.MOD_ID)
 public class TriggerMobsForge {
@@ -24,6 +33,12 @@ public class TriggerMobsForge {
         FMLJavaModLoadingContext.get().getModEventBus().register(this);
     }
     
+    @SubscribeEvent
+    public void onCommonSetup(FMLCommonSetupEvent event) {
+        // Registries are frozen by now - classify every item once so weapon lookups never touch the registry again
+        event.enqueueWork(WeaponTypeDetector::rebuildCache);
+    }
+    
     @SubscribeEvent
     public void onConfigLoad(ModConfigEvent.Loading event) {
         if (event.getConfig().getModId().equals(TriggerMobs.MOD_ID) && event.getConfig().getType() == ModConfig.Type.COMMON) {
@@ -34,7 +49,14 @@ public class TriggerMobsForge {
     @SubscribeEvent
     public void onConfigReload(ModConfigEvent.Reloading event) {
         if (event.getConfig().getModId().equals(TriggerMobs.MOD_ID) && event.getConfig().getType() == ModConfig.Type.COMMON) {
-            updateConfigValues();
+            // Reloads come from the config file watcher thread; the values are read on the server thread
+            // without synchronization, so swap them in there (between ticks) while a server is running
+            MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+            if (server != null) {
+                server.execute(this::updateConfigValues);
+            } else {
+                updateConfigValues();
+            }
         }
     }
     
@@ -92,6 +114,80 @@ public class TriggerMobsForge {
                     TriggerMobs.LOGGER.info("TriggerMobs config loaded and applied: baseAttackIntervalTicks={}, attackIntervalVariance={}, tier1Probability={} (default)", 
                         TriggerMobs.baseAttackIntervalTicks, TriggerMobs.attackIntervalVariance, TriggerMobs.tier1Probability);
                 }
+                // Spread tables are built from the accuracy tiers
+                SpreadProfile.rebuildAll();
+                if (TriggerMobsConfig.COMMON.holdFireEnabled != null) {
+                    TriggerMobs.holdFireEnabled = TriggerMobsConfig.COMMON.holdFireEnabled.get();
+                }
+                
+                // Load performance config
+                if (TriggerMobsConfig.COMMON.maintenanceIntervalTicks != null) {
+                    TriggerMobs.maintenanceIntervalTicks = Math.max(1, TriggerMobsConfig.COMMON.maintenanceIntervalTicks.get());
+                    TriggerMobs.maintenanceBudgetMicros = Math.max(50, TriggerMobsConfig.COMMON.maintenanceBudgetMicros.get());
+                    TriggerMobs.maintenanceDimensions = List.copyOf(TriggerMobsConfig.COMMON.maintenanceDimensions.get());
+                    TriggerMobs.LOGGER.info("TriggerMobs performance config applied: maintenanceIntervalTicks={}, maintenanceBudgetMicros={}, maintenanceDimensions={}",
+                        TriggerMobs.maintenanceIntervalTicks, TriggerMobs.maintenanceBudgetMicros, TriggerMobs.maintenanceDimensions);
+                }
+                TriggerMobsEvents.reloadMaintenanceDimensions();
+                
+                // Load AI level of detail config
+                if (TriggerMobsConfig.COMMON.aiLodEnabled != null) {
+                    TriggerMobs.aiLodEnabled = TriggerMobsConfig.COMMON.aiLodEnabled.get();
+                    TriggerMobs.aiLodNearDistance = TriggerMobsConfig.COMMON.aiLodNearDistance.get();
+                    TriggerMobs.aiLodFarDistance = Math.max(TriggerMobs.aiLodNearDistance, TriggerMobsConfig.COMMON.aiLodFarDistance.get());
+                    TriggerMobs.aiLodReducedInterval = TriggerMobsConfig.COMMON.aiLodReducedInterval.get();
+                    TriggerMobs.aiLodMinimalInterval = TriggerMobsConfig.COMMON.aiLodMinimalInterval.get();
+                    TriggerMobs.LOGGER.info("TriggerMobs AI LOD config applied: enabled={}, nearDistance={}, farDistance={}, reducedInterval={}, minimalInterval={}",
+                        TriggerMobs.aiLodEnabled, TriggerMobs.aiLodNearDistance, TriggerMobs.aiLodFarDistance,
+                        TriggerMobs.aiLodReducedInterval, TriggerMobs.aiLodMinimalInterval);
+                }
+                
+                if (TriggerMobsConfig.COMMON.losCacheTicks != null) {
+                    TriggerMobs.losCacheTicks = TriggerMobsConfig.COMMON.losCacheTicks.get();
+                    TriggerMobs.batchMobShots = TriggerMobsConfig.COMMON.batchMobShots.get();
+                    TriggerMobs.maxShotsPerTick = TriggerMobsConfig.COMMON.maxShotsPerTick.get();
+                    TriggerMobs.hitscanUnobservedShots = TriggerMobsConfig.COMMON.hitscanUnobservedShots.get();
+                    TriggerMobs.hitscanDamage = TriggerMobsConfig.COMMON.hitscanDamage.get().floatValue();
+                    TriggerMobs.hitscanRange = TriggerMobsConfig.COMMON.hitscanRange.get();
+                }
+                
+                if (TriggerMobsConfig.COMMON.pathBudgetPerTick != null) {
+                    TriggerMobs.pathBudgetPerTick = TriggerMobsConfig.COMMON.pathBudgetPerTick.get();
+                    TriggerMobs.pathReuseTicks = TriggerMobsConfig.COMMON.pathReuseTicks.get();
+                    TriggerMobs.flowFieldsEnabled = TriggerMobsConfig.COMMON.flowFieldsEnabled.get();
+                    TriggerMobs.flowFieldMinAttackers = TriggerMobsConfig.COMMON.flowFieldMinAttackers.get();
+                    TriggerMobs.flowFieldRadius = TriggerMobsConfig.COMMON.flowFieldRadius.get();
+                    TriggerMobs.flowFieldNodesPerTick = TriggerMobsConfig.COMMON.flowFieldNodesPerTick.get();
+                }
+                
+                // Load combat throttle config
+                if (TriggerMobsConfig.COMMON.throttleEnabled != null) {
+                    TriggerMobs.throttleEnabled = TriggerMobsConfig.COMMON.throttleEnabled.get();
+                    TriggerMobs.throttleStartMspt = TriggerMobsConfig.COMMON.throttleStartMspt.get();
+                    TriggerMobs.throttleStepMspt = TriggerMobsConfig.COMMON.throttleStepMspt.get();
+                    TriggerMobs.LOGGER.info("TriggerMobs combat throttle config applied: enabled={}, startMspt={}, stepMspt={}",
+                        TriggerMobs.throttleEnabled, TriggerMobs.throttleStartMspt, TriggerMobs.throttleStepMspt);
+                }
+                
+                // Load metrics config
+                if (TriggerMobsConfig.COMMON.metricsEnabled != null) {
+                    TriggerMobs.metricsEnabled = TriggerMobsConfig.COMMON.metricsEnabled.get();
+                    TriggerMobs.metricsPort = TriggerMobsConfig.COMMON.metricsPort.get();
+                    TriggerMobs.metricsFile = TriggerMobsConfig.COMMON.metricsFile.get();
+                }
+                
+                // Load gun user filters
+                if (TriggerMobsConfig.COMMON.gunUserIncludes != null) {
+                    TriggerMobs.gunUserIncludes = List.copyOf(TriggerMobsConfig.COMMON.gunUserIncludes.get());
+                    TriggerMobs.gunUserExcludes = List.copyOf(TriggerMobsConfig.COMMON.gunUserExcludes.get());
+                }
+                
+                // Load squad config
+                if (TriggerMobsConfig.COMMON.squadsEnabled != null) {
+                    TriggerMobs.squadsEnabled = TriggerMobsConfig.COMMON.squadsEnabled.get();
+                    TriggerMobs.squadRadius = TriggerMobsConfig.COMMON.squadRadius.get();
+                }
+                GunUserEligibility.invalidate();
             } else {
                 throw new NullPointerException("Config not initialized - COMMON or baseAttackIntervalTicks is null");
             }
@@ -100,6 +196,40 @@ public class TriggerMobsForge {
             TriggerMobs.baseAttackIntervalTicks = 200;
             TriggerMobs.attackIntervalVariance = 80;
             TriggerMobs.tier1Probability = 0.125f;
+            SpreadProfile.rebuildAll();
+            TriggerMobs.holdFireEnabled = true;
+            TriggerMobs.maintenanceIntervalTicks = 10;
+            TriggerMobs.maintenanceBudgetMicros = 500;
+            TriggerMobs.maintenanceDimensions = List.of("minecraft:overworld");
+            TriggerMobsEvents.reloadMaintenanceDimensions();
+            TriggerMobs.aiLodEnabled = true;
+            TriggerMobs.aiLodNearDistance = 24;
+            TriggerMobs.aiLodFarDistance = 64;
+            TriggerMobs.aiLodReducedInterval = 4;
+            TriggerMobs.aiLodMinimalInterval = 10;
+            TriggerMobs.losCacheTicks = 4;
+            TriggerMobs.batchMobShots = false;
+            TriggerMobs.maxShotsPerTick = 4;
+            TriggerMobs.hitscanUnobservedShots = false;
+            TriggerMobs.hitscanDamage = 5.0f;
+            TriggerMobs.hitscanRange = 64.0;
+            TriggerMobs.pathBudgetPerTick = 8;
+            TriggerMobs.pathReuseTicks = 10;
+            TriggerMobs.flowFieldsEnabled = false;
+            TriggerMobs.flowFieldMinAttackers = 6;
+            TriggerMobs.flowFieldRadius = 32;
+            TriggerMobs.flowFieldNodesPerTick = 4096;
+            TriggerMobs.throttleEnabled = true;
+            TriggerMobs.throttleStartMspt = 40.0;
+            TriggerMobs.throttleStepMspt = 5.0;
+            TriggerMobs.metricsEnabled = false;
+            TriggerMobs.metricsPort = 0;
+            TriggerMobs.metricsFile = "";
+            TriggerMobs.gunUserIncludes = List.of();
+            TriggerMobs.gunUserExcludes = List.of();
+            TriggerMobs.squadsEnabled = true;
+            TriggerMobs.squadRadius = 16;
+            GunUserEligibility.invalidate();
             TriggerMobs.LOGGER.error("Failed to load TriggerMobs config, using defaults: baseAttackIntervalTicks=200, attackIntervalVariance=80, tier1Probability=0.125. Error: {}", e.getMessage());
             e.printStackTrace();
         }
@@ -0,0 +1,178 @@
+package com.spock117.triggermobs.commands;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.context.CommandContext;
+import com.spock117.triggermobs.TriggerMobs;
+import com.spock117.triggermobs.ai.CombatLevelContext;
+import com.spock117.triggermobs.ai.CombatThrottle;
+import com.spock117.triggermobs.ai.FireScheduler;
+import com.spock117.triggermobs.ai.LineOfSightCache;
+import com.spock117.triggermobs.ai.MobShooter;
+import com.spock117.triggermobs.util.CombatProfiler;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.level.Level;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The /triggermobs command (operators only).
+ * Output is plain text rather than translation keys, since clients don't need the mod installed.
+ */
+public class TriggerMobsCommands {
+    
+    public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+        dispatcher.register(Commands.literal(TriggerMobs.MOD_ID)
+            .requires(source -> source.hasPermission(2))
+            .then(Commands.literal("throttle")
+                .executes(TriggerMobsCommands::showThrottle))
+            .then(Commands.literal("fire")
+                .executes(TriggerMobsCommands::showFireStats)
+                .then(Commands.literal("reset")
+                    .executes(TriggerMobsCommands::resetFireStats)))
+            .then(Commands.literal("los")
+                .executes(TriggerMobsCommands::showLineOfSightCache)
+                .then(Commands.literal("reset")
+                    .executes(TriggerMobsCommands::resetLineOfSightCache)))
+            .then(Commands.literal("profile")
+                .executes(TriggerMobsCommands::showProfile)
+                .then(Commands.literal("start")
+                    .executes(context -> setProfiling(context, true)))
+                .then(Commands.literal("stop")
+                    .executes(context -> setProfiling(context, false)))
+                .then(Commands.literal("reset")
+                    .executes(TriggerMobsCommands::resetProfile))
+                .then(Commands.literal("dump")
+                    .executes(TriggerMobsCommands::dumpProfile))));
+    }
+    
+    private static int showThrottle(CommandContext<CommandSourceStack> context) {
+        CombatThrottle.Stage stage = CombatThrottle.getStage();
+        
+        StringBuilder message = new StringBuilder();
+        message.append(String.format("Combat throttle: %s (average tick time %.1f ms)", stage, CombatThrottle.getLastMspt()));
+        if (!TriggerMobs.throttleEnabled) {
+            message.append(" - disabled in config");
+        } else if (stage != CombatThrottle.Stage.NORMAL) {
+            message.append(String.format("%nPathfinding delay x%d, AI decisions every %d+ ticks, fire delay x%.1f",
+                stage.getPathDelayMultiplier(), stage.getMinDecisionInterval(), stage.getFireDelayMultiplier()));
+            if (stage.getMaxShotsPerArea() > 0) {
+                message.append(String.format(", max %d shots per 32x32 area per second", stage.getMaxShotsPerArea()));
+            }
+        }
+        for (CombatThrottle.Stage next : CombatThrottle.Stage.values()) {
+            if (next.ordinal() > stage.ordinal()) {
+                message.append(String.format("%nNext stage %s at %.1f ms", next, CombatThrottle.getEntryMspt(next)));
+                break;
+            }
+        }
+        
+        context.getSource().sendSuccess(() -> Component.literal(message.toString()), false);
+        return stage.ordinal();
+    }
+    
+    private static int showLineOfSightCache(CommandContext<CommandSourceStack> context) {
+        if (CombatLevelContext.getAll().isEmpty()) {
+            context.getSource().sendSuccess(() -> Component.literal("Line-of-sight cache: no armed mobs active yet"), false);
+            return 0;
+        }
+        
+        StringBuilder message = new StringBuilder(String.format("Line-of-sight cache (TTL %d ticks):", TriggerMobs.losCacheTicks));
+        for (Map.Entry<Level, CombatLevelContext> entry : CombatLevelContext.getAll().entrySet()) {
+            LineOfSightCache cache = entry.getValue().getLineOfSightCache();
+            long lookups = cache.getHits() + cache.getMisses();
+            message.append(String.format("%n%s: %d hits, %d misses (%d invalidated by block changes), hit rate %.1f%%",
+                entry.getKey().dimension().location(), cache.getHits(), cache.getMisses(), cache.getInvalidations(),
+                lookups > 0 ? 100.0 * cache.getHits() / lookups : 0.0));
+        }
+        
+        context.getSource().sendSuccess(() -> Component.literal(message.toString()), false);
+        return 1;
+    }
+    
+    private static int resetLineOfSightCache(CommandContext<CommandSourceStack> context) {
+        CombatLevelContext.getAll().values().forEach(levelContext -> levelContext.getLineOfSightCache().resetCounters());
+        context.getSource().sendSuccess(() -> Component.literal("Line-of-sight cache counters reset"), true);
+        return 1;
+    }
+    
+    private static int showFireStats(CommandContext<CommandSourceStack> context) {
+        long fired = MobShooter.getShotsFired();
+        long failed = MobShooter.getShotsFailed();
+        long hitscan = MobShooter.getShotsHitscan();
+        StringBuilder message = new StringBuilder(String.format(
+            "Mob shots: %d fired, %d resolved as hitscan, %d failed%s", fired, hitscan, failed,
+            failed > 0 ? " (see the server log for the first error of each kind)" : ""));
+        if (FireScheduler.isEnabled()) {
+            for (Map.Entry<Level, CombatLevelContext> entry : CombatLevelContext.getAll().entrySet()) {
+                FireScheduler scheduler = entry.getValue().getFireScheduler();
+                message.append(String.format("%n%s: %d shots booked, %d moved to another tick, %d ready shots booked for a later tick",
+                    entry.getKey().dimension().location(), scheduler.getBooked(), scheduler.getShifted(), scheduler.getDeferred()));
+            }
+        }
+        
+        context.getSource().sendSuccess(() -> Component.literal(message.toString()), false);
+        return (int) Math.min(Integer.MAX_VALUE, failed);
+    }
+    
+    private static int resetFireStats(CommandContext<CommandSourceStack> context) {
+        MobShooter.resetCounters();
+        CombatLevelContext.getAll().values().forEach(levelContext -> levelContext.getFireScheduler().resetCounters());
+        context.getSource().sendSuccess(() -> Component.literal("Mob shot counters reset"), true);
+        return 1;
+    }
+    
+    private static int showProfile(CommandContext<CommandSourceStack> context) {
+        StringBuilder message = new StringBuilder(String.format("Combat profiler: %s, %.1f s recorded%s",
+            CombatProfiler.isEnabled() ? "recording" : "stopped", CombatProfiler.getRecordingNanos() / 1.0e9,
+            CombatProfiler.isAllocationTracked() ? "" : " (allocation tracking not supported by this JVM)"));
+        for (CombatProfiler.Phase phase : CombatProfiler.Phase.values()) {
+            CombatProfiler.Stats stats = CombatProfiler.getPhaseStats(phase);
+            message.append(String.format("%n%s: %d calls, %.2f ms total, avg %d ns, max %d ns, %d bytes allocated",
+                phase, stats.getCalls(), stats.getTotalNanos() / 1.0e6, stats.getAverageNanos(), stats.getMaxNanos(),
+                stats.getAllocatedBytes()));
+        }
+        List<Map.Entry<String, CombatProfiler.Stats>> strategies = CombatProfiler.getStrategyTotals();
+        for (Map.Entry<String, CombatProfiler.Stats> entry : strategies) {
+            CombatProfiler.Stats stats = entry.getValue();
+            message.append(String.format("%n%s: %.2f ms total over %d phase calls, %d bytes allocated",
+                entry.getKey(), stats.getTotalNanos() / 1.0e6, stats.getCalls(), stats.getAllocatedBytes()));
+        }
+        
+        context.getSource().sendSuccess(() -> Component.literal(message.toString()), false);
+        return strategies.size();
+    }
+    
+    private static int setProfiling(CommandContext<CommandSourceStack> context, boolean enable) {
+        CombatProfiler.setEnabled(enable);
+        context.getSource().sendSuccess(() -> Component.literal(enable
+            ? "Combat profiler started" : "Combat profiler stopped (use /triggermobs profile dump to save the results)"), true);
+        return 1;
+    }
+    
+    private static int resetProfile(CommandContext<CommandSourceStack> context) {
+        CombatProfiler.reset();
+        context.getSource().sendSuccess(() -> Component.literal("Combat profiler counters reset"), true);
+        return 1;
+    }
+    
+    private static int dumpProfile(CommandContext<CommandSourceStack> context) {
+        String name = "triggermobs-profile-" + LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss")) + ".csv";
+        File file = context.getSource().getServer().getFile(name);
+        try {
+            CombatProfiler.writeCsv(file.toPath());
+        } catch (IOException e) {
+            TriggerMobs.LOGGER.error("Failed to write combat profile to {}", file, e);
+            context.getSource().sendFailure(Component.literal("Failed to write " + name + ": " + e.getMessage()));
+            return 0;
+        }
+        context.getSource().sendSuccess(() -> Component.literal("Combat profile written to " + name), true);
+        return 1;
+    }
+}
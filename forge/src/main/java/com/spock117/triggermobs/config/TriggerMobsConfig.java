@@ -3,6 +3,8 @@ package com.spock117.triggermobs.config;
 import net.minecraftforge.common.ForgeConfigSpec;
 import org.apache.commons.lang3.tuple.Pair;
 
+import java.util.List;
+
 public class TriggerMobsConfig {
     public static final ForgeConfigSpec COMMON_SPEC;
     public static final Common COMMON;
@@ -16,7 +18,38 @@ public class TriggerMobsConfig {
     public static class Common {
         public final ForgeConfigSpec.IntValue baseAttackIntervalTicks;
         public final ForgeConfigSpec.IntValue attackIntervalVariance;
+        public final ForgeConfigSpec.ConfigValue<List<? extends String>> gunUserIncludes;
+        public final ForgeConfigSpec.ConfigValue<List<? extends String>> gunUserExcludes;
+        public final ForgeConfigSpec.BooleanValue squadsEnabled;
+        public final ForgeConfigSpec.IntValue squadRadius;
         public final ForgeConfigSpec.DoubleValue tier1Probability;
+        public final ForgeConfigSpec.BooleanValue holdFireEnabled;
+        public final ForgeConfigSpec.IntValue maintenanceIntervalTicks;
+        public final ForgeConfigSpec.IntValue maintenanceBudgetMicros;
+        public final ForgeConfigSpec.ConfigValue<List<? extends String>> maintenanceDimensions;
+        public final ForgeConfigSpec.BooleanValue aiLodEnabled;
+        public final ForgeConfigSpec.IntValue aiLodNearDistance;
+        public final ForgeConfigSpec.IntValue aiLodFarDistance;
+        public final ForgeConfigSpec.IntValue aiLodReducedInterval;
+        public final ForgeConfigSpec.IntValue aiLodMinimalInterval;
+        public final ForgeConfigSpec.IntValue losCacheTicks;
+        public final ForgeConfigSpec.BooleanValue batchMobShots;
+        public final ForgeConfigSpec.IntValue maxShotsPerTick;
+        public final ForgeConfigSpec.BooleanValue hitscanUnobservedShots;
+        public final ForgeConfigSpec.DoubleValue hitscanDamage;
+        public final ForgeConfigSpec.DoubleValue hitscanRange;
+        public final ForgeConfigSpec.IntValue pathBudgetPerTick;
+        public final ForgeConfigSpec.IntValue pathReuseTicks;
+        public final ForgeConfigSpec.BooleanValue flowFieldsEnabled;
+        public final ForgeConfigSpec.IntValue flowFieldMinAttackers;
+        public final ForgeConfigSpec.IntValue flowFieldRadius;
+        public final ForgeConfigSpec.IntValue flowFieldNodesPerTick;
+        public final ForgeConfigSpec.BooleanValue throttleEnabled;
+        public final ForgeConfigSpec.DoubleValue throttleStartMspt;
+        public final ForgeConfigSpec.DoubleValue throttleStepMspt;
+        public final ForgeConfigSpec.BooleanValue metricsEnabled;
+        public final ForgeConfigSpec.IntValue metricsPort;
+        public final ForgeConfigSpec.ConfigValue<String> metricsFile;
         
         public Common(ForgeConfigSpec.Builder builder) {
             builder.comment("TriggerMobs mob attack configuration").push("mob_attack");
@@ -29,6 +62,24 @@ public class TriggerMobsConfig {
                 .comment("Random variance in ticks added to attack interval (±this value). Default: 80 ticks (±4 seconds)")
                 .defineInRange("attackIntervalVariance", 80, 0, 200);
             
+            this.gunUserIncludes = builder
+                .comment("Extra hostile mobs that can use guns, in addition to the triggermobs:gun_users entity type tag and mobs with humanoid arms, e.g. [\"mymod:bandit\"]")
+                .defineListAllowEmpty("gunUserIncludes", List.of(),
+                    value -> value instanceof String name && net.minecraft.resources.ResourceLocation.tryParse(name) != null);
+            
+            this.gunUserExcludes = builder
+                .comment("Hostile mobs that never use guns, even if tagged or humanoid, e.g. [\"minecraft:drowned\"]")
+                .defineListAllowEmpty("gunUserExcludes", List.of(),
+                    value -> value instanceof String name && net.minecraft.resources.ResourceLocation.tryParse(name) != null);
+            
+            this.squadsEnabled = builder
+                .comment("Armed mobs close together with the same target fight as a squad: they fan out to flank instead of strafing randomly, move up in turns, and spread their shots over different ticks. Default: true")
+                .define("squadsEnabled", true);
+            
+            this.squadRadius = builder
+                .comment("Armed mobs within this many blocks of each other (and with the same target) form a squad. Default: 16")
+                .defineInRange("squadRadius", 16, 4, 64);
+            
             builder.pop();
             
             builder.comment("TriggerMobs accuracy configuration").push("accuracy");
@@ -37,6 +88,119 @@ public class TriggerMobsConfig {
                 .comment("Probability of accurate shots (Tier 1: ±3-5 degrees). Range: 0.0 to 1.0. Default: 0.125 (12.5%). Tier 2 probability (less accurate: ±12-15 degrees) is automatically calculated as (1.0 - tier1Probability).")
                 .defineInRange("tier1Probability", 0.125, 0.0, 1.0);
             
+            this.holdFireEnabled = builder
+                .comment("Spread also depends on each weapon's accuracy model: distance, whether the target is sprinting (walking targets are not penalized) and how long the mob has been aiming. When the spread would be much worse than usual (e.g. a launcher against a sprinting target it has not aimed at for long), the mob holds fire and waits for a better shot instead of wasting a projectile. Default: true")
+                .define("holdFireEnabled", true);
+            
+            builder.pop();
+            
+            builder.comment("TriggerMobs performance configuration").push("performance");
+            
+            this.maintenanceIntervalTicks = builder
+                .comment("How often (in ticks) each mob's held items and nearby pickups are checked. Mobs are spread evenly across this interval. Default: 10 ticks")
+                .defineInRange("maintenanceIntervalTicks", 10, 1, 200);
+            
+            this.maintenanceBudgetMicros = builder
+                .comment("Maximum time in microseconds spent on mob equipment maintenance per tick, split evenly between the enabled dimensions. Unfinished work carries over to the next tick. Default: 500 (0.5 ms)")
+                .defineInRange("maintenanceBudgetMicros", 500, 50, 50000);
+            
+            this.maintenanceDimensions = builder
+                .comment("Dimensions where mobs get smart item pickup and dual-wield pickup, e.g. [\"minecraft:overworld\", \"minecraft:the_nether\"]. Default: overworld only")
+                .defineListAllowEmpty("maintenanceDimensions", List.of("minecraft:overworld"),
+                    value -> value instanceof String name && net.minecraft.resources.ResourceLocation.tryParse(name) != null);
+            
+            this.aiLodEnabled = builder
+                .comment("Run the gun AI of mobs far from players (or out of their view) less often. Nearby fights always run at full rate. Default: true")
+                .define("aiLodEnabled", true);
+            
+            this.aiLodNearDistance = builder
+                .comment("Mobs within this many blocks of a player always run full AI. Default: 24")
+                .defineInRange("aiLodNearDistance", 24, 4, 256);
+            
+            this.aiLodFarDistance = builder
+                .comment("Mobs within this many blocks of a player run full AI when in the player's view and reduced AI otherwise. Beyond it, mobs run minimal AI unless in view. Default: 64")
+                .defineInRange("aiLodFarDistance", 64, 8, 512);
+            
+            this.aiLodReducedInterval = builder
+                .comment("Ticks between AI decisions for mobs at reduced detail. Default: 4")
+                .defineInRange("aiLodReducedInterval", 4, 1, 40);
+            
+            this.aiLodMinimalInterval = builder
+                .comment("Ticks between AI decisions for mobs at minimal detail. Default: 10")
+                .defineInRange("aiLodMinimalInterval", 10, 1, 100);
+            
+            this.losCacheTicks = builder
+                .comment("How many ticks a line-of-sight check is reused by mobs whose eyes are in the same block, aiming at a target whose eyes are in the same block. Results are dropped early when blocks change nearby. Hit rates: /triggermobs los. 0 disables the cache. Default: 4")
+                .defineInRange("losCacheTicks", 4, 0, 20);
+            
+            this.batchMobShots = builder
+                .comment("Queue the shots mobs decide on during a tick and fire them together at the end of the tick, instead of one by one in the middle of each mob's AI. Each shot is still fired separately through NTGL, so this only moves the work to the end of the tick (and delays shots by up to one tick). Default: false")
+                .define("batchMobShots", false);
+            
+            this.maxShotsPerTick = builder
+                .comment("Spread mob shots over ticks so about this many fire per dimension per tick. Each shot is moved a few ticks at most from when its weapon is ready, so the overall fire rate stays the same; a shot that is ready without a booking (e.g. after a reload) is booked for the next tick with room, at most 10 ticks later. Squad members only book their firing slots, so they still take turns. 0 disables staggering. Default: 4")
+                .defineInRange("maxShotsPerTick", 4, 0, 100);
+            
+            this.hitscanUnobservedShots = builder
+                .comment("Resolve shots from mobs outside every player's view distance as instant raycasts instead of spawning projectiles (mob-vs-mob fights in unattended areas). Shots at players always use real projectiles. Hitscan shots use hitscanDamage. They don't take rounds out of the magazine, but the mob still stops to reload after a magazine's worth of them. Default: false")
+                .define("hitscanUnobservedShots", false);
+            
+            this.hitscanDamage = builder
+                .comment("Damage dealt by a hitscan shot. NTGL's per-gun damage is not available to TriggerMobs, so one value is used for all guns. Default: 5.0")
+                .defineInRange("hitscanDamage", 5.0, 0.0, 100.0);
+            
+            this.hitscanRange = builder
+                .comment("Maximum range of a hitscan shot in blocks. Default: 64")
+                .defineInRange("hitscanRange", 64.0, 8.0, 256.0);
+            
+            this.pathBudgetPerTick = builder
+                .comment("Maximum number of path searches armed mobs may start per dimension per tick when chasing targets. Further requests wait for the next tick, mobs standing still first. 0 = unlimited. Default: 8")
+                .defineInRange("pathBudgetPerTick", 8, 0, 200);
+            
+            this.pathReuseTicks = builder
+                .comment("How many ticks a path found for one mob is reused by other mobs starting within the same 4x4x4 block area and chasing a target in the same block. A mob joins the path at the furthest node next to its own block, and searches its own if the path doesn't pass next to it. 0 disables reuse. Default: 10")
+                .defineInRange("pathReuseTicks", 10, 0, 100);
+            
+            this.flowFieldsEnabled = builder
+                .comment("Build a shared walking-distance field around entities that many armed mobs are chasing (raids, night waves). The chasing mobs follow the field instead of each running their own path search. Default: false")
+                .define("flowFieldsEnabled", false);
+            
+            this.flowFieldMinAttackers = builder
+                .comment("How many mobs must be chasing the same entity before it gets a flow field. Default: 6")
+                .defineInRange("flowFieldMinAttackers", 6, 2, 100);
+            
+            this.flowFieldRadius = builder
+                .comment("Horizontal reach of a flow field in blocks around its target. Mobs further away use normal pathfinding. Default: 32")
+                .defineInRange("flowFieldRadius", 32, 8, 96);
+            
+            this.flowFieldNodesPerTick = builder
+                .comment("Maximum blocks explored per dimension per tick while building flow fields. Builds are spread over several ticks; the previous field stays in use meanwhile. Default: 4096")
+                .defineInRange("flowFieldNodesPerTick", 4096, 256, 65536);
+            
+            this.throttleEnabled = builder
+                .comment("Degrade armed mob AI in stages while the server's average tick time (MSPT) is high: longer pathfinding delays, less frequent line-of-sight checks, lower fire rates, fewer shooters per area. Recovers automatically. Check the current stage with /triggermobs throttle. Default: true")
+                .define("throttleEnabled", true);
+            
+            this.throttleStartMspt = builder
+                .comment("Average tick time in milliseconds at which the first throttle stage starts. 50 ms is the point where the server falls behind. Default: 40.0")
+                .defineInRange("throttleStartMspt", 40.0, 10.0, 1000.0);
+            
+            this.throttleStepMspt = builder
+                .comment("Additional milliseconds of average tick time for each further throttle stage. Default: 5.0")
+                .defineInRange("throttleStepMspt", 5.0, 1.0, 100.0);
+            
+            this.metricsEnabled = builder
+                .comment("Record combat metrics (armed mobs, shots per strategy, reloads, tick time per AI phase, ...) in Prometheus text format. Exported through metricsPort and/or metricsFile. Default: false")
+                .define("metricsEnabled", false);
+            
+            this.metricsPort = builder
+                .comment("Port of the metrics HTTP endpoint (http://127.0.0.1:<port>/metrics, loopback only). 0 disables the endpoint. Takes effect when the server starts. Default: 0")
+                .defineInRange("metricsPort", 0, 0, 65535);
+            
+            this.metricsFile = builder
+                .comment("File the metrics are written to every 15 seconds, relative to the server directory (e.g. for node_exporter's textfile collector). Empty disables the file. Takes effect when the server starts. Default: \"\"")
+                .define("metricsFile", "");
+            
             builder.pop();
         }
     }
@@ -0,0 +1,215 @@
+package com.spock117.triggermobs.events;
+
+import com.nukateam.ntgl.common.data.WeaponData;
+import com.nukateam.ntgl.common.foundation.item.interfaces.IWeapon;
+import com.nukateam.ntgl.common.util.util.WeaponModifierHelper;
+import com.spock117.triggermobs.TriggerMobs;
+import com.spock117.triggermobs.util.CombatMetrics;
+import com.spock117.triggermobs.util.MaintenanceScheduler;
+import com.spock117.triggermobs.util.PickupSweepIndex;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.EquipmentSlot;
+import net.minecraft.world.entity.Mob;
+import net.minecraft.world.entity.item.ItemEntity;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.phys.AABB;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Equipment maintenance for mobs with custom pickup behavior in one level (one instance per enabled dimension).
+ * Everything here is driven by events instead of polling:
+ * - a disallowed item that ends up in a mob's hand is rejected when the equipment change is reported
+ * - dual-wield pickup only runs while NTGL weapons are actually lying around (tracked as they join the level)
+ * While there are loose weapons, tracked mobs are visited round-robin, a slice per tick,
+ * under a hard per-tick time budget (see MaintenanceScheduler). Otherwise a tick costs nothing.
+ */
+public class MobEquipmentMaintenance {
+    private final MaintenanceScheduler<Mob> scheduler = new MaintenanceScheduler<>();
+    private final PickupSweepIndex pickupSweep = new PickupSweepIndex();
+    private final List<ItemEntity> nearbyItems = new ArrayList<>();
+    private final List<ItemEntity> looseWeapons = new ArrayList<>();
+    private final Set<ItemEntity> looseWeaponSet = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final List<RejectedItem> rejectedItems = new ArrayList<>();
+    private final Consumer<Mob> maintainTask = this::maintainMob;
+    
+    private ServerLevel level;
+    private boolean indexBuilt;
+    
+    /**
+     * A disallowed item that a mob equipped, to be taken away at the end of the tick.
+     */
+    private record RejectedItem(Mob mob, EquipmentSlot slot, ItemStack stack) {}
+    
+    /**
+     * Starts tracking a mob. Removed mobs drop out of the rotation on their own.
+     */
+    public void track(Mob mob) {
+        scheduler.add(mob);
+    }
+    
+    /**
+     * Starts tracking an NTGL weapon lying in the world as a dual-wield pickup candidate.
+     */
+    public void trackLooseWeapon(ItemEntity itemEntity) {
+        if (looseWeaponSet.add(itemEntity)) {
+            looseWeapons.add(itemEntity);
+        }
+    }
+    
+    /**
+     * Called when a tracked mob equips a non-weapon, non-tool item in a hand.
+     * The change is applied at the end of the level tick, outside of the equipment change event.
+     */
+    public void rejectHeldItem(Mob mob, EquipmentSlot slot, ItemStack stack) {
+        rejectedItems.add(new RejectedItem(mob, slot, stack));
+    }
+    
+    /**
+     * Number of mobs currently tracked.
+     */
+    public int getTrackedCount() {
+        return scheduler.size();
+    }
+    
+    /**
+     * Runs this tick's equipment maintenance.
+     * @param level The level being ticked
+     * @param budgetNanos This level's share of the per-tick time budget
+     */
+    public void tick(ServerLevel level, long budgetNanos) {
+        if (!rejectedItems.isEmpty()) {
+            processRejectedItems();
+        }
+        
+        if (looseWeapons.isEmpty()) {
+            return;
+        }
+        
+        pruneLooseWeapons();
+        if (looseWeapons.isEmpty()) {
+            return;
+        }
+        
+        this.level = level;
+        this.indexBuilt = false;
+        
+        scheduler.tick(TriggerMobs.maintenanceIntervalTicks, budgetNanos, MobEquipmentMaintenance::isTrackable, maintainTask);
+        
+        // Don't hold on to entity references between ticks
+        nearbyItems.clear();
+        pickupSweep.clear();
+        this.level = null;
+    }
+    
+    private static boolean isTrackable(Mob mob) {
+        return !mob.isRemoved() && mob.isAlive();
+    }
+    
+    private void processRejectedItems() {
+        for (RejectedItem rejected : rejectedItems) {
+            Mob mob = rejected.mob();
+            // Only act if the mob still holds exactly the stack that was reported
+            if (isTrackable(mob) && mob.getItemBySlot(rejected.slot()) == rejected.stack()) {
+                // The item is consumed rather than dropped, otherwise the mob would pick it up again
+                mob.setItemSlot(rejected.slot(), ItemStack.EMPTY);
+                CombatMetrics.onPickupDiscarded(false);
+            }
+        }
+        rejectedItems.clear();
+    }
+    
+    private void pruneLooseWeapons() {
+        for (int i = looseWeapons.size() - 1; i >= 0; i--) {
+            ItemEntity itemEntity = looseWeapons.get(i);
+            if (itemEntity.isRemoved() || !itemEntity.isAlive() || itemEntity.getItem().isEmpty()) {
+                ItemEntity last = looseWeapons.remove(looseWeapons.size() - 1);
+                if (i < looseWeapons.size()) {
+                    looseWeapons.set(i, last);
+                }
+                looseWeaponSet.remove(itemEntity);
+            }
+        }
+    }
+    
+    private void maintainMob(Mob mob) {
+        // Mobs outside entity-ticking range can't pick anything up
+        if (mob.level() != level || !level.isPositionEntityTicking(mob.blockPosition())) {
+            return;
+        }
+        
+        ItemStack mainHand = mob.getMainHandItem();
+        ItemStack offHand = mob.getOffhandItem();
+        
+        // The loose weapon index is built lazily, once per tick, and only if some mob is due
+        if (!indexBuilt) {
+            pickupSweep.rebuild(looseWeapons);
+            indexBuilt = true;
+        }
+        if (!pickupSweep.hasItems()) {
+            return;
+        }
+        AABB searchBox = mob.getBoundingBox().inflate(1.5D); // Check 1.5 blocks around mob
+        pickupSweep.collectItemsNear(searchBox, nearbyItems);
+        
+        for (ItemEntity itemEntity : nearbyItems) {
+            if (itemEntity.isRemoved() || !itemEntity.isAlive()) {
+                continue;
+            }
+            
+            ItemStack itemStack = itemEntity.getItem();
+            if (itemStack.isEmpty()) {
+                continue;
+            }
+            
+            double distance = mob.distanceToSqr(itemEntity);
+            
+            // Handle NTGL weapon dual-wielding pickup
+            if (itemStack.getItem() instanceof IWeapon && distance < 2.0D) {
+                boolean hasMainNTGL = mainHand.getItem() instanceof IWeapon;
+                boolean hasOffNTGL = offHand.getItem() instanceof IWeapon;
+                
+                if (hasMainNTGL || hasOffNTGL) {
+                    WeaponData existingWeaponData = hasMainNTGL 
+                        ? new WeaponData(mainHand, mob) 
+                        : new WeaponData(offHand, mob);
+                    WeaponData newWeaponData = new WeaponData(itemStack, mob);
+                    
+                    boolean existingIsOneHanded = WeaponModifierHelper.isOneHanded(existingWeaponData);
+                    boolean newIsOneHanded = WeaponModifierHelper.isOneHanded(newWeaponData);
+                    
+                    if (existingIsOneHanded && newIsOneHanded) {
+                        // Both are one-handed - allow dual wielding
+                        // Remove item from world and equip manually
+                        itemEntity.remove(net.minecraft.world.entity.Entity.RemovalReason.DISCARDED);
+                        
+                        if (hasMainNTGL && offHand.isEmpty()) {
+                            mob.setItemSlot(net.minecraft.world.entity.EquipmentSlot.OFFHAND, itemStack.copy());
+                        } else if (hasOffNTGL && mainHand.isEmpty()) {
+                            mob.setItemSlot(net.minecraft.world.entity.EquipmentSlot.MAINHAND, itemStack.copy());
+                        } else if (hasMainNTGL && !hasOffNTGL) {
+                            if (!offHand.isEmpty()) {
+                                mob.spawnAtLocation(offHand.copy());
+                            }
+                            mob.setItemSlot(net.minecraft.world.entity.EquipmentSlot.OFFHAND, itemStack.copy());
+                        } else if (hasOffNTGL && !hasMainNTGL) {
+                            if (!mainHand.isEmpty()) {
+                                mob.spawnAtLocation(mainHand.copy());
+                            }
+                            mob.setItemSlot(net.minecraft.world.entity.EquipmentSlot.MAINHAND, itemStack.copy());
+                        }
+                    } else {
+                        // At least one is two-handed - prevent pickup
+                        itemEntity.remove(net.minecraft.world.entity.Entity.RemovalReason.DISCARDED);
+                        CombatMetrics.onPickupDiscarded(true);
+                    }
+                }
+            }
+        }
+    }
+}
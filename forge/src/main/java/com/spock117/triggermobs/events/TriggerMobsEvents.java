@@ -1,48 +1,76 @@
 package com.spock117.triggermobs.events;
 
-import com.nukateam.ntgl.common.data.WeaponData;
 import com.nukateam.ntgl.common.foundation.item.interfaces.IWeapon;
-import com.nukateam.ntgl.common.util.util.WeaponModifierHelper;
 import com.spock117.triggermobs.TriggerMobs;
+import com.spock117.triggermobs.ai.CombatLevelContext;
+import com.spock117.triggermobs.ai.CombatThrottle;
+import com.spock117.triggermobs.ai.WeaponStrategyRegistry;
+import com.spock117.triggermobs.ai.WeaponStrategyReloadListener;
+import com.spock117.triggermobs.commands.TriggerMobsCommands;
 import com.spock117.triggermobs.goals.MobGunAttackGoal;
+import com.spock117.triggermobs.util.CombatMetrics;
+import com.spock117.triggermobs.util.CombatProfiler;
+import com.spock117.triggermobs.util.GunUserEligibility;
+import com.spock117.triggermobs.util.MetricsExporter;
 import com.spock117.triggermobs.util.MobItemPickupHelper;
+import com.spock117.triggermobs.util.WeaponTypeDetector;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceKey;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.entity.EquipmentSlot;
 import net.minecraft.world.entity.Mob;
 import net.minecraft.world.entity.item.ItemEntity;
 import net.minecraft.world.entity.monster.Monster;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.phys.AABB;
+import net.minecraftforge.event.AddReloadListenerEvent;
+import net.minecraftforge.event.RegisterCommandsEvent;
+import net.minecraftforge.event.TagsUpdatedEvent;
 import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.event.entity.EntityJoinLevelEvent;
+import net.minecraftforge.event.entity.living.LivingEquipmentChangeEvent;
+import net.minecraftforge.event.level.BlockEvent;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.event.server.ServerStartedEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
-import net.minecraftforge.registries.ForgeRegistries;
 
-import java.util.List;
-import java.util.Set;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 @Mod.EventBusSubscriber(modid = TriggerMobs.MOD_ID, bus = Mod.EventBusSubscriber.Bus.FORGE)
 public class TriggerMobsEvents {
     
-    // Set of mob registry names that should have CanPickUpLoot enabled
-    private static final Set<String> MOBS_WITH_LOOT_PICKUP = Set.of(
-        "minecraft:zombie",
-        "minecraft:zombie_villager",
-        "minecraft:husk",
-        "minecraft:drowned",
-        "minecraft:skeleton",
-        "minecraft:stray",
-        "minecraft:wither_skeleton",
-        "minecraft:pillager",
-        "minecraft:vindicator",
-        "minecraft:evoker",
-        "minecraft:witch",
-        "minecraft:villager",
-        "minecraft:piglin",
-        "minecraft:piglin_brute",
-        "minecraft:zombified_piglin"
-    );
+    // Equipment maintenance per enabled dimension, resolved from config once and looked up by key identity
+    // (ResourceKeys are interned). Replaced wholesale on config reload, which is applied on the server thread
+    // once a server runs; volatile because the initial load happens on a mod loading thread.
+    private static volatile Map<ResourceKey<Level>, MobEquipmentMaintenance> maintenanceByDimension = new IdentityHashMap<>();
+    
+    /**
+     * Resolves the configured maintenance dimensions into level keys.
+     * Dimensions that stay enabled keep their tracked mobs and items.
+     */
+    public static void reloadMaintenanceDimensions() {
+        Map<ResourceKey<Level>, MobEquipmentMaintenance> resolved = new IdentityHashMap<>();
+        for (String name : TriggerMobs.maintenanceDimensions) {
+            ResourceLocation location = ResourceLocation.tryParse(name);
+            if (location == null) {
+                TriggerMobs.LOGGER.warn("Ignoring invalid maintenance dimension '{}'", name);
+                continue;
+            }
+            ResourceKey<Level> key = ResourceKey.create(Registries.DIMENSION, location);
+            MobEquipmentMaintenance existing = maintenanceByDimension.get(key);
+            resolved.put(key, existing != null ? existing : new MobEquipmentMaintenance());
+        }
+        maintenanceByDimension = resolved;
+    }
+    
+    private static MobEquipmentMaintenance maintenanceFor(Level level) {
+        return maintenanceByDimension.get(level.dimension());
+    }
     
     @SubscribeEvent
     public static void onEntityJoinLevel(EntityJoinLevelEvent event) {
@@ -53,16 +81,41 @@ public class TriggerMobsEvents {
             return;
         }
         
-        // Enable CanPickUpLoot for specified mobs
+        // Enable CanPickUpLoot for mobs with custom pickup handling
         if (event.getEntity() instanceof Mob mob) {
-            ResourceLocation entityTypeKey = ForgeRegistries.ENTITY_TYPES.getKey(mob.getType());
-            if (entityTypeKey != null && MOBS_WITH_LOOT_PICKUP.contains(entityTypeKey.toString())) {
+            if (MobItemPickupHelper.shouldHandlePickup(mob)) {
                 mob.setCanPickUpLoot(true);
+                
+                // Track mobs for time-sliced equipment maintenance
+                MobEquipmentMaintenance maintenance = maintenanceFor(mob.level());
+                if (maintenance != null) {
+                    maintenance.track(mob);
+                }
+            }
+            
+            // Mobs that can use guns get the goal right away only if they already hold one;
+            // the rest get it when they first pick one up (see onEquipmentChange)
+            if (isHoldingWeapon(mob) && GunUserEligibility.isEligible(mob)) {
+                attachGunGoal(mob);
             }
         }
         
-        // Only add goal to hostile mobs (Monster)
-        if (event.getEntity() instanceof Monster monster) {
+        // Loose NTGL weapons are the only items that still need a pickup check (dual-wielding)
+        if (event.getEntity() instanceof ItemEntity itemEntity && itemEntity.getItem().getItem() instanceof IWeapon) {
+            MobEquipmentMaintenance maintenance = maintenanceFor(event.getLevel());
+            if (maintenance != null) {
+                maintenance.trackLooseWeapon(itemEntity);
+            }
+        }
+    }
+    
+    private static boolean isHoldingWeapon(Mob mob) {
+        return mob.getMainHandItem().getItem() instanceof IWeapon || mob.getOffhandItem().getItem() instanceof IWeapon;
+    }
+    
+    private static void attachGunGoal(Mob mob) {
+        // Only hostile mobs (Monster); eligibility already checked that
+        if (mob instanceof Monster monster && !MobGunAttackGoal.hasGoal(monster)) {
             try {
                 MobGunAttackGoal goal = new MobGunAttackGoal(monster, 0.6D, 16.0F); // Reduced speed: 0.6 instead of 1.0
                 monster.goalSelector.addGoal(3, goal);
@@ -73,8 +126,126 @@ public class TriggerMobsEvents {
     }
     
     /**
-     * Handle mob item pickup behavior using TickEvent.
-     * This runs every server tick to check mobs and manage their items.
+     * Filter what mobs hold at the moment they equip it, instead of polling nearby items.
+     * Non-weapon, non-tool items that end up in a hand are taken away again.
+     * Also tells the mob's gun goal that its hands changed, attaching the goal on the first gun.
+     */
+    @SubscribeEvent
+    public static void onEquipmentChange(LivingEquipmentChangeEvent event) {
+        if (!(event.getEntity() instanceof Mob mob) || mob.level().isClientSide()) {
+            return;
+        }
+        
+        EquipmentSlot slot = event.getSlot();
+        if (slot.getType() != EquipmentSlot.Type.HAND) {
+            return;
+        }
+        
+        ItemStack newStack = event.getTo();
+        
+        // Different item in hand: the gun goal's cached weapon profile is stale
+        // (ammo and other NBT-only changes keep the same item and are ignored)
+        if (event.getFrom().getItem() != newStack.getItem()) {
+            MobGunAttackGoal.onEquipmentChanged(mob);
+            
+            // Fires from the entity tick outside goal selection, so the goal set can be modified here
+            if (newStack.getItem() instanceof IWeapon && !MobGunAttackGoal.hasGoal(mob) && GunUserEligibility.isEligible(mob)) {
+                attachGunGoal(mob);
+            }
+        }
+        
+        if (newStack.isEmpty() || MobItemPickupHelper.isWeaponOrTool(newStack)) {
+            return;
+        }
+        
+        MobEquipmentMaintenance maintenance = maintenanceFor(mob.level());
+        if (maintenance != null && MobItemPickupHelper.shouldHandlePickup(mob)) {
+            maintenance.rejectHeldItem(mob, slot, newStack);
+        }
+    }
+    
+    @SubscribeEvent
+    public static void onRegisterCommands(RegisterCommandsEvent event) {
+        TriggerMobsCommands.register(event.getDispatcher());
+    }
+    
+    /**
+     * Feed the combat throttle with the server's average tick time once per second.
+     */
+    @SubscribeEvent
+    public static void onServerTick(TickEvent.ServerTickEvent event) {
+        if (event.phase != TickEvent.Phase.END) {
+            return;
+        }
+        
+        MinecraftServer server = event.getServer();
+        if (server.getTickCount() % 20 == 0) {
+            CombatThrottle.update(server.getAverageTickTime());
+        }
+    }
+    
+    @SubscribeEvent
+    public static void onServerStarted(ServerStartedEvent event) {
+        MetricsExporter.start(event.getServer().getServerDirectory().toPath());
+    }
+    
+    @SubscribeEvent
+    public static void onServerStopped(ServerStoppedEvent event) {
+        CombatThrottle.reset();
+        CombatLevelContext.clearAll();
+        CombatProfiler.setEnabled(false);
+        MetricsExporter.stop();
+        CombatMetrics.clearLevels();
+    }
+    
+    /**
+     * Drop an unloading level's combat state, which holds on to its mobs (and through them the level).
+     */
+    @SubscribeEvent
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel() instanceof Level level && !level.isClientSide()) {
+            CombatLevelContext.remove(level);
+        }
+    }
+    
+    /**
+     * Load weapon strategy rules from datapacks.
+     */
+    @SubscribeEvent
+    public static void onAddReloadListeners(AddReloadListenerEvent event) {
+        event.addListener(new WeaponStrategyReloadListener());
+    }
+    
+    /**
+     * Rebuild cached weapon classifications, strategies and gun user types whenever registries or datapacks reload.
+     * Tags are bound at this point, which the strategy tag rules need.
+     */
+    @SubscribeEvent
+    public static void onTagsUpdated(TagsUpdatedEvent event) {
+        if (event.getUpdateCause() == TagsUpdatedEvent.UpdateCause.SERVER_DATA_LOAD) {
+            WeaponTypeDetector.rebuildCache();
+            WeaponStrategyRegistry.rebuildCache();
+            GunUserEligibility.invalidate();
+        }
+    }
+    
+    /**
+     * Block changes invalidate cached line-of-sight results through the changed section.
+     */
+    @SubscribeEvent
+    public static void onNeighborNotify(BlockEvent.NeighborNotifyEvent event) {
+        if (event.getLevel() instanceof Level level && !level.isClientSide()) {
+            CombatLevelContext context = CombatLevelContext.getIfPresent(level);
+            if (context != null) {
+                context.getLineOfSightCache().onBlockChanged(event.getPos(), level.getGameTime());
+            }
+        }
+    }
+    
+    /**
+     * Fire the mob shots queued during this level tick, then apply deferred equipment changes
+     * and run dual-wield pickup checks. The equipment part is a no-op unless a mob equipped
+     * something disallowed or NTGL weapons are lying around (see MobEquipmentMaintenance).
      */
     @SubscribeEvent
     public static void onLevelTick(TickEvent.LevelTickEvent event) {
@@ -89,115 +260,21 @@ public class TriggerMobsEvents {
         
         Level level = event.level;
         
-        // Only check overworld to avoid checking all dimensions (can be expanded later)
-        if (!level.dimension().location().equals(net.minecraft.resources.ResourceLocation.parse("minecraft:overworld"))) {
-            return;
+        // Fire this tick's queued mob shots and do per-level combat housekeeping
+        // (only levels where armed mobs have been active)
+        CombatLevelContext context = CombatLevelContext.getIfPresent(level);
+        if (context != null) {
+            context.tick(level, level.getGameTime());
         }
         
-        // Iterate through all mobs in loaded chunks
-        // Check around players to find loaded areas, then get mobs from those areas
-        List<Mob> mobs = new java.util.ArrayList<>();
-        
-        // Get all players to find loaded areas
-        for (net.minecraft.world.entity.player.Player player : level.players()) {
-            // Check area around each player (64 block radius)
-            AABB playerArea = player.getBoundingBox().inflate(64.0D);
-            List<Mob> nearbyMobs = level.getEntitiesOfClass(Mob.class, playerArea);
-            for (Mob mob : nearbyMobs) {
-                if (mob.isAlive() && !mob.isRemoved() && !mobs.contains(mob)) {
-                    mobs.add(mob);
-                }
-            }
+        // Only dimensions enabled in config (identity lookup on the level key)
+        MobEquipmentMaintenance maintenance = maintenanceFor(level);
+        if (maintenance == null || !(level instanceof ServerLevel serverLevel)) {
+            return;
         }
         
-        // Also check spawn area if no players found
-        if (mobs.isEmpty() && level instanceof net.minecraft.server.level.ServerLevel serverLevel) {
-            net.minecraft.core.BlockPos spawnPos = serverLevel.getSharedSpawnPos();
-            AABB spawnArea = new AABB(spawnPos).inflate(128.0D);
-            List<Mob> spawnMobs = level.getEntitiesOfClass(Mob.class, spawnArea);
-            mobs.addAll(spawnMobs);
-        }
-        for (Mob mob : mobs) {
-            // Only handle mobs that should have custom pickup behavior
-            if (!MobItemPickupHelper.shouldHandlePickup(mob)) {
-                continue;
-            }
-            
-            // Check and drop non-weapon, non-tool items from hands
-            ItemStack mainHand = mob.getMainHandItem();
-            ItemStack offHand = mob.getOffhandItem();
-            
-            if (!mainHand.isEmpty() && !MobItemPickupHelper.isWeaponOrTool(mainHand)) {
-                mob.spawnAtLocation(mainHand.copy());
-                mob.setItemSlot(net.minecraft.world.entity.EquipmentSlot.MAINHAND, ItemStack.EMPTY);
-            }
-            
-            if (!offHand.isEmpty() && !MobItemPickupHelper.isWeaponOrTool(offHand)) {
-                mob.spawnAtLocation(offHand.copy());
-                mob.setItemSlot(net.minecraft.world.entity.EquipmentSlot.OFFHAND, ItemStack.EMPTY);
-            }
-            
-            // Check nearby items and prevent pickup of non-weapon/non-tool items
-            AABB searchBox = mob.getBoundingBox().inflate(1.5D); // Check 1.5 blocks around mob
-            List<ItemEntity> nearbyItems = level.getEntitiesOfClass(ItemEntity.class, searchBox);
-            
-            for (ItemEntity itemEntity : nearbyItems) {
-                if (itemEntity.isRemoved() || !itemEntity.isAlive()) {
-                    continue;
-                }
-                
-                ItemStack itemStack = itemEntity.getItem();
-                if (itemStack.isEmpty()) {
-                    continue;
-                }
-                
-                // If mob is close enough to pick up the item and it's not a weapon/tool, remove it
-                double distance = mob.distanceToSqr(itemEntity);
-                if (distance < 2.0D && !MobItemPickupHelper.isWeaponOrTool(itemStack)) {
-                    itemEntity.remove(net.minecraft.world.entity.Entity.RemovalReason.DISCARDED);
-                }
-                
-                // Handle NTGL weapon dual-wielding pickup
-                if (itemStack.getItem() instanceof IWeapon && distance < 2.0D) {
-                    boolean hasMainNTGL = mainHand.getItem() instanceof IWeapon;
-                    boolean hasOffNTGL = offHand.getItem() instanceof IWeapon;
-                    
-                    if (hasMainNTGL || hasOffNTGL) {
-                        WeaponData existingWeaponData = hasMainNTGL 
-                            ? new WeaponData(mainHand, mob) 
-                            : new WeaponData(offHand, mob);
-                        WeaponData newWeaponData = new WeaponData(itemStack, mob);
-                        
-                        boolean existingIsOneHanded = WeaponModifierHelper.isOneHanded(existingWeaponData);
-                        boolean newIsOneHanded = WeaponModifierHelper.isOneHanded(newWeaponData);
-                        
-                        if (existingIsOneHanded && newIsOneHanded) {
-                            // Both are one-handed - allow dual wielding
-                            // Remove item from world and equip manually
-                            itemEntity.remove(net.minecraft.world.entity.Entity.RemovalReason.DISCARDED);
-                            
-                            if (hasMainNTGL && offHand.isEmpty()) {
-                                mob.setItemSlot(net.minecraft.world.entity.EquipmentSlot.OFFHAND, itemStack.copy());
-                            } else if (hasOffNTGL && mainHand.isEmpty()) {
-                                mob.setItemSlot(net.minecraft.world.entity.EquipmentSlot.MAINHAND, itemStack.copy());
-                            } else if (hasMainNTGL && !hasOffNTGL) {
-                                if (!offHand.isEmpty()) {
-                                    mob.spawnAtLocation(offHand.copy());
-                                }
-                                mob.setItemSlot(net.minecraft.world.entity.EquipmentSlot.OFFHAND, itemStack.copy());
-                            } else if (hasOffNTGL && !hasMainNTGL) {
-                                if (!mainHand.isEmpty()) {
-                                    mob.spawnAtLocation(mainHand.copy());
-                                }
-                                mob.setItemSlot(net.minecraft.world.entity.EquipmentSlot.MAINHAND, itemStack.copy());
-                            }
-                        } else {
-                            // At least one is two-handed - prevent pickup
-                            itemEntity.remove(net.minecraft.world.entity.Entity.RemovalReason.DISCARDED);
-                        }
-                    }
-                }
-            }
-        }
+        // The configured budget is a ceiling for all dimensions together, so each gets an equal share
+        long budgetNanos = TriggerMobs.maintenanceBudgetMicros * 1000L / Math.max(1, maintenanceByDimension.size());
+        maintenance.tick(serverLevel, budgetNanos);
     }
 }